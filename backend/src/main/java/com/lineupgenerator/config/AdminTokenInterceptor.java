@@ -0,0 +1,57 @@
+package com.lineupgenerator.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards {@code /api/admin/**} with the shared {@code app.admin.token}, sent as
+ * {@code Authorization: Bearer <token>} or {@code X-Admin-Token}. A missing or
+ * wrong token gets {@code 401}; with no token configured the admin endpoints
+ * answer {@code 404}, as if they did not exist.
+ */
+class AdminTokenInterceptor implements HandlerInterceptor {
+
+    static final String TOKEN_HEADER = "X-Admin-Token";
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] token;
+
+    AdminTokenInterceptor(String token) {
+        this.token = token == null || token.isBlank() ? null : token.trim().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return true;
+        }
+        if (token == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return false;
+        }
+        String presented = presented(request);
+        // Constant-time, so the token cannot be guessed a byte at a time from response timings
+        if (presented == null || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            return false;
+        }
+        return true;
+    }
+
+    private static String presented(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return authorization.substring(BEARER.length()).trim();
+        }
+        return request.getHeader(TOKEN_HEADER);
+    }
+}
@@ -0,0 +1,120 @@
+package com.lineupgenerator.config;
+
+import com.lineupgenerator.service.AdmissionControl;
+import com.lineupgenerator.service.RequestClass;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies {@link AdmissionControl} before a handler runs: 429 when the client
+ * is over its rate for the endpoint class, 503 when the class is at its
+ * concurrency limit and its queue is full or the wait timed out. Both carry
+ * {@code Retry-After}. Runs after the CORS interceptor, so rejections still
+ * carry CORS headers and browsers can read the status.
+ *
+ * <p>Streaming responses hold their slot until the stream ends but give no
+ * latency sample, since their duration depends on the client.
+ */
+class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admission;
+
+    AdmissionInterceptor(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    private final class Permit {
+        private final RequestClass requestClass;
+        private final long started = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean async;
+
+        Permit(RequestClass requestClass) {
+            this.requestClass = requestClass;
+        }
+
+        void release(boolean sample) {
+            if (released.compareAndSet(false, true)) {
+                admission.release(requestClass, sample && !async ? System.nanoTime() - started : -1);
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return true;
+        }
+        RequestClass requestClass = RequestClass.of(request.getRequestURI());
+        if (requestClass == null) return true;
+
+        long waitNanos = admission.rateLimitedFor(requestClass, request.getRemoteAddr());
+        if (waitNanos > 0) {
+            reject(response, 429, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+            return false;
+        }
+        boolean admitted;
+        try {
+            admitted = admission.acquire(requestClass);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            reject(response, 503, 1);
+            return false;
+        }
+        request.setAttribute(PERMIT, new Permit(requestClass));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(request.getAttribute(PERMIT) instanceof Permit permit)) return;
+        permit.async = true;
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                permit.release(false);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                permit.release(false);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                permit.release(false);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Permit permit && !request.isAsyncStarted()) {
+            permit.release(ex == null);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds) {
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+}
@@ -0,0 +1,33 @@
+package com.lineupgenerator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Admission control per endpoint class ({@code search}, which includes
+ * replacement suggestions, {@code facets}, {@code export}, {@code photos},
+ * {@code admin}; see {@link com.lineupgenerator.service.RequestClass}). Each
+ * class has its own adaptive concurrency limit with a short wait queue, and a
+ * per-client request rate.
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionProperties(boolean enabled, Map<String, Limits> classes) {
+
+    /**
+     * @param initialLimit      concurrent requests allowed at startup
+     * @param minLimit          the limit never drops below this
+     * @param maxLimit          the limit never grows above this
+     * @param queueSize         requests that may wait for a slot; more are rejected at once
+     * @param queueTimeoutMs    how long a queued request waits before it is rejected
+     * @param targetLatencyMs   completions slower than this shrink the limit
+     * @param ratePerSecond     sustained requests per second per client
+     * @param burst             requests a client may make at once above that rate
+     */
+    public record Limits(int initialLimit, int minLimit, int maxLimit, int queueSize, long queueTimeoutMs,
+                         long targetLatencyMs, double ratePerSecond, int burst) {}
+
+    public AdmissionProperties {
+        if (classes == null) classes = Map.of();
+    }
+}
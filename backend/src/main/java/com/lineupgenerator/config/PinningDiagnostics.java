@@ -0,0 +1,76 @@
+package com.lineupgenerator.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * In virtual-thread mode, streams the JDK's {@code jdk.VirtualThreadPinned}
+ * events and logs where a virtual thread blocked while pinned to its carrier
+ * (typically inside a {@code synchronized} block or native frame). Pinned
+ * threads hold a carrier for the whole block, which is what erodes the
+ * concurrency virtual threads are supposed to buy.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(value = "app.virtual-threads.pinning-diagnostics", havingValue = "true", matchIfMissing = true)
+public class PinningDiagnostics {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningDiagnostics.class);
+    private static final int MAX_FRAMES = 8;
+
+    @Value("${app.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned")
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", this::report);
+            stream.startAsync();
+            log.info("Virtual thread pinning diagnostics enabled (threshold {} ms)", thresholdMs);
+        } catch (RuntimeException e) {
+            // JFR can be missing from trimmed runtimes; the app runs fine without it
+            log.warn("Virtual thread pinning diagnostics unavailable: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    private void report(RecordedEvent event) {
+        String thread = event.getThread() != null ? event.getThread().getJavaName() : "?";
+        log.warn("Virtual thread {} pinned for {} ms:\n{}", thread, event.getDuration().toMillis(), frames(event));
+    }
+
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "    (no stack trace)";
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+            .limit(MAX_FRAMES)
+            .map(f -> "    at " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                + (f.getLineNumber() > 0 ? ":" + f.getLineNumber() : ""))
+            .collect(Collectors.joining("\n"));
+    }
+}
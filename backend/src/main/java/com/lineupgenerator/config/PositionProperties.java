@@ -0,0 +1,17 @@
+package com.lineupgenerator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary-fit table for formation slots: each slot maps to the slots whose
+ * players are offered as fallbacks when picking a player for it.
+ */
+@ConfigurationProperties(prefix = "app.positions")
+public record PositionProperties(Map<String, List<String>> adjacency) {
+    public PositionProperties {
+        if (adjacency == null) adjacency = Map.of();
+    }
+}
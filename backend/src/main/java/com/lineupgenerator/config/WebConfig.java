@@ -1,8 +1,10 @@
 package com.lineupgenerator.config;
 
+import com.lineupgenerator.service.AdmissionControl;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -11,14 +13,34 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${cors.allowed-origins:*}")
     private String allowedOrigins;
     
+    @Value("${app.admin.token:}")
+    private String adminToken;
+    
+    private final AdmissionControl admissionControl;
+    private final AdmissionProperties admissionProperties;
+    
+    public WebConfig(AdmissionControl admissionControl, AdmissionProperties admissionProperties) {
+        this.admissionControl = admissionControl;
+        this.admissionProperties = admissionProperties;
+    }
+    
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
             .allowedOriginPatterns("*")
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD")
             .allowedHeaders("*")
-            .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials")
+            .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "Retry-After")
             .allowCredentials(false)  // Set to false when using allowedOriginPatterns("*")
             .maxAge(3600);
     }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Before admission, so unauthenticated admin calls never take a slot
+        registry.addInterceptor(new AdminTokenInterceptor(adminToken)).addPathPatterns("/api/admin/**");
+        if (admissionProperties.enabled()) {
+            registry.addInterceptor(new AdmissionInterceptor(admissionControl)).addPathPatterns("/api/**");
+        }
+    }
 }
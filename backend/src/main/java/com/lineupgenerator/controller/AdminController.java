@@ -0,0 +1,117 @@
+package com.lineupgenerator.controller;
+
+import com.lineupgenerator.service.AdmissionControl;
+import com.lineupgenerator.service.DatasetReplication;
+import com.lineupgenerator.service.LeagueIngest;
+import com.lineupgenerator.service.PlayerService;
+import com.lineupgenerator.service.QueryDiagnostics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+    private static final Pattern SLUG = Pattern.compile("[a-z0-9]+(-[a-z0-9]+)*");
+
+    private final QueryDiagnostics diagnostics;
+    private final AdmissionControl admissionControl;
+    private final LeagueIngest leagueIngest;
+    private final PlayerService playerService;
+    private final DatasetReplication replication;
+
+    public AdminController(QueryDiagnostics diagnostics, AdmissionControl admissionControl, LeagueIngest leagueIngest,
+                           PlayerService playerService, DatasetReplication replication) {
+        this.diagnostics = diagnostics;
+        this.admissionControl = admissionControl;
+        this.leagueIngest = leagueIngest;
+        this.playerService = playerService;
+        this.replication = replication;
+    }
+
+    public record QueryDiagnosticsResponse(
+        List<QueryDiagnostics.SlowRequest> slowest,
+        List<QueryDiagnostics.QueryCount> topQueries,
+        List<QueryDiagnostics.QueryCount> topCacheMisses
+    ) {}
+
+    /**
+     * Recent slow search/export requests, slowest first, and approximate
+     * counts of the most frequent search parameters overall and among cache
+     * misses. Counts decay over time, so they rank recent traffic.
+     */
+    @GetMapping("/diagnostics/queries")
+    public ResponseEntity<QueryDiagnosticsResponse> queries(@RequestParam(defaultValue = "20") int limit) {
+        int capped = Math.max(1, Math.min(limit, 200));
+        return ResponseEntity.ok(new QueryDiagnosticsResponse(
+            diagnostics.slowest(capped),
+            diagnostics.topQueries(capped),
+            diagnostics.topCacheMisses(capped)
+        ));
+    }
+
+    /**
+     * Replaces one league's players from a scraper league document in the
+     * request body, gzipped or plain JSON. Nothing changes unless the whole
+     * document is valid; the response lists the first problems otherwise.
+     */
+    @PutMapping("/leagues/{slug}")
+    public ResponseEntity<LeagueIngest.Result> putLeague(@PathVariable String slug, HttpServletRequest request) {
+        if (!SLUG.matcher(slug).matches()) {
+            return ResponseEntity.badRequest().build();
+        }
+        LeagueIngest.Result result;
+        try {
+            result = leagueIngest.ingest(slug, request.getInputStream());
+        } catch (IOException e) {
+            log.warn("League upload for {} failed: {}", slug, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        HttpStatus status = switch (result.outcome()) {
+            case APPLIED -> HttpStatus.OK;
+            case INVALID -> HttpStatus.UNPROCESSABLE_ENTITY;
+            case CONFLICT -> HttpStatus.CONFLICT;
+            case TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case NOT_READY -> HttpStatus.SERVICE_UNAVAILABLE;
+        };
+        return ResponseEntity.status(status).body(result);
+    }
+
+    /**
+     * Reloads every league from the scraper output. With a shared dataset
+     * directory the result is published to every replica, otherwise it is local.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Integer> reloadPlayers() {
+        if (!replication.enabled()) {
+            return ResponseEntity.ok(playerService.reloadPlayers());
+        }
+        try {
+            return ResponseEntity.ok(replication.reload());
+        } catch (IOException e) {
+            log.error("Could not publish the reloaded dataset", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /** Current adaptive limit, in-flight and queued requests, and rejection counts per endpoint class. */
+    @GetMapping("/admission")
+    public ResponseEntity<List<AdmissionControl.ClassStats>> admission() {
+        return ResponseEntity.ok(admissionControl.stats());
+    }
+}
@@ -1,15 +1,27 @@
 package com.lineupgenerator.controller;
 
 import com.lineupgenerator.dto.ExportRequest;
+import com.lineupgenerator.service.PhotoService;
+import com.lineupgenerator.service.QueryDiagnostics;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Base64;
+
 @RestController
 @RequestMapping("/api/lineup")
 public class ExportController {
     
+    private final QueryDiagnostics diagnostics;
+    private final PhotoService photoService;
+    
+    public ExportController(QueryDiagnostics diagnostics, PhotoService photoService) {
+        this.diagnostics = diagnostics;
+        this.photoService = photoService;
+    }
+    
     @PostMapping("/export")
     public ResponseEntity<ExportResponse> prepareExport(@RequestBody ExportRequest request) {
         if (request.players() == null || request.players().isEmpty()) {
@@ -36,7 +48,9 @@ public class ExportController {
     }
     @PostMapping("/export/svg")
     public ResponseEntity<String> exportSvg(@RequestBody ExportRequest request) {
+        long started = System.nanoTime();
         String svg = generateSvg(request);
+        diagnostics.recordTiming("export", () -> exportParams(request), System.nanoTime() - started);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.valueOf("image/svg+xml"));
@@ -47,6 +61,12 @@ public class ExportController {
             .body(svg);
     }
     
+    private static String exportParams(ExportRequest request) {
+        return "formation=" + request.formationId()
+            + "&players=" + (request.players() != null ? request.players().size() : 0)
+            + "&size=" + request.width() + "x" + request.height();
+    }
+    
     private String generateSvg(ExportRequest request) {
         int width = request.width();
         int height = request.height();
@@ -66,8 +86,11 @@ public class ExportController {
         };
         svg.append(String.format("<rect width=\"%d\" height=\"%d\" fill=\"%s\"/>", width, height, bgColor));
         svg.append(generatePitchMarkings(width, height));
+        boolean showPhotos = request.settings() != null && request.settings().showPhotos();
         if (request.players() != null) {
+            int index = 0;
             for (var player : request.players()) {
+                index++;
                 double x = player.customX() != null ? player.customX() : 50;
                 double y = player.customY() != null ? player.customY() : 50;
                 
@@ -82,6 +105,17 @@ public class ExportController {
                     px, py, color
                 ));
                 
+                // Only thumbnails already cached locally; an export never waits on the photo origin
+                if (showPhotos && player.playerId() != null) {
+                    int clip = index;
+                    photoService.cachedThumbnail(player.playerId()).ifPresent(jpeg -> svg.append(String.format(
+                        "<clipPath id=\"photo-%d\"><circle cx=\"%d\" cy=\"%d\" r=\"23\"/></clipPath>"
+                            + "<image x=\"%d\" y=\"%d\" width=\"46\" height=\"46\" preserveAspectRatio=\"xMidYMid slice\""
+                            + " clip-path=\"url(#photo-%d)\" href=\"data:image/jpeg;base64,%s\"/>",
+                        clip, px, py, px - 23, py - 23, clip, Base64.getEncoder().encodeToString(jpeg)
+                    )));
+                }
+                
                 if (request.settings() == null || request.settings().showNames()) {
                     String name = player.displayName() != null ? player.displayName() : 
                         (player.name() != null ? player.name() : "");
@@ -2,8 +2,11 @@ package com.lineupgenerator.controller;
 
 import com.lineupgenerator.dto.FormationDTO;
 import com.lineupgenerator.service.FormationService;
+import com.lineupgenerator.service.ReferenceDataService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,20 +18,35 @@ public class FormationController {
     
     private static final Logger log = LoggerFactory.getLogger(FormationController.class);
     private final FormationService formationService;
+    private final ReferenceDataService referenceDataService;
     
-    public FormationController(FormationService formationService) {
+    public FormationController(FormationService formationService, ReferenceDataService referenceDataService) {
         this.formationService = formationService;
+        this.referenceDataService = referenceDataService;
     }
     
     @GetMapping
-    public ResponseEntity<List<FormationDTO>> getAllFormations() {
-        List<FormationDTO> formations = formationService.getAllFormations()
-            .stream()
-            .map(FormationDTO::from)
-            .toList();
-        return ResponseEntity.ok(formations);
+    public ResponseEntity<byte[]> getAllFormations(@RequestHeader HttpHeaders headers) {
+        return PrecomputedResponses.json(referenceDataService.formations(), headers, PrecomputedResponses.STATIC);
     }
     
+    /**
+     * Picker thumbnails for every formation, flip and pitch style: the sprite
+     * sheet as inline SVG plus each tile's position in it. {@code hash}
+     * identifies the sheet, e.g. for {@code sprites.png?v=<hash>}.
+     */
+    @GetMapping("/sprites")
+    public ResponseEntity<byte[]> getSprites(@RequestHeader HttpHeaders headers) {
+        return PrecomputedResponses.json(referenceDataService.formationSprites(), headers, PrecomputedResponses.STATIC);
+    }
+
+    /** The same sheet as a PNG at twice the manifest's size. */
+    @GetMapping("/sprites.png")
+    public ResponseEntity<byte[]> getSpritesPng(@RequestHeader HttpHeaders headers) {
+        return PrecomputedResponses.body(referenceDataService.formationSpritesPng(), MediaType.IMAGE_PNG,
+            headers, PrecomputedResponses.STATIC);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<FormationDTO> getFormation(
             @PathVariable String id,
@@ -1,5 +1,10 @@
 package com.lineupgenerator.controller;
 
+import com.lineupgenerator.service.CacheWarmer;
+import com.lineupgenerator.service.DatasetReplication;
+import com.lineupgenerator.service.LoadProgress;
+import com.lineupgenerator.service.PlayerService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,13 +18,53 @@ import java.util.Map;
 public class HealthController {
 
     private final Instant startTime = Instant.now();
+    private final PlayerService playerService;
+    private final CacheWarmer cacheWarmer;
+    private final DatasetReplication replication;
+
+    public HealthController(PlayerService playerService, CacheWarmer cacheWarmer, DatasetReplication replication) {
+        this.playerService = playerService;
+        this.cacheWarmer = cacheWarmer;
+        this.replication = replication;
+    }
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
+        LoadProgress progress = playerService.loadProgress();
         return ResponseEntity.ok(Map.of(
-            "status", "healthy",
+            "status", progress.complete() ? "healthy" : "loading",
             "timestamp", Instant.now().toString(),
             "uptime", java.time.Duration.between(startTime, Instant.now()).toSeconds() + "s"
         ));
     }
+
+    /** The process is up and serving HTTP; says nothing about the data. */
+    @GetMapping("/health/live")
+    public ResponseEntity<Map<String, Object>> live() {
+        return ResponseEntity.ok(Map.of("status", "UP"));
+    }
+
+    /**
+     * 200 once the data is loaded and the caches are warmed, 503 before that.
+     * A background load is ready as soon as some player data is searchable
+     * ({@code partial} until every source has loaded), since serving early is
+     * its purpose. Both report load progress, and {@code dataset} shows which
+     * shared snapshot this replica serves and whether it lags the published one.
+     */
+    @GetMapping("/health/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        LoadProgress progress = playerService.loadProgress();
+        boolean ready = progress.background()
+            ? progress.complete() || progress.sourcesLoaded() > 0
+            : progress.complete() && cacheWarmer.isDone();
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+            "status", ready ? "READY" : progress.complete() ? "WARMING" : "LOADING",
+            "partial", !progress.complete(),
+            "warm", cacheWarmer.isDone(),
+            "sourcesLoaded", progress.sourcesLoaded(),
+            "sourcesTotal", progress.sourcesTotal(),
+            "players", playerService.getPlayerCount(),
+            "dataset", replication.status()
+        ));
+    }
 }
@@ -0,0 +1,69 @@
+package com.lineupgenerator.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.model.Lineup;
+import com.lineupgenerator.service.LineupStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@RestController
+@RequestMapping("/api/lineups")
+public class LineupController {
+
+    private static final Logger log = LoggerFactory.getLogger(LineupController.class);
+    private static final int MAX_PLAYERS = 30;
+
+    private final LineupStore lineupStore;
+    private final ObjectMapper objectMapper;
+
+    public LineupController(LineupStore lineupStore, ObjectMapper objectMapper) {
+        this.lineupStore = lineupStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<ShareResponse>> saveLineup(@RequestBody Lineup lineup)
+            throws JsonProcessingException {
+        if (lineup.formationId() == null || lineup.players() == null || lineup.players().size() > MAX_PLAYERS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        byte[] payload = objectMapper.writeValueAsBytes(lineup);
+        return lineupStore.save(payload)
+            .thenApply(id -> ResponseEntity
+                .created(URI.create("/api/lineups/" + id))
+                .body(new ShareResponse(id, "/api/lineups/" + id)))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+                }
+                log.error("Failed to store lineup", cause);
+                return ResponseEntity.internalServerError().build();
+            });
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> getLineup(@PathVariable String id) {
+        // Ids are content hashes, so a stored lineup never changes
+        return lineupStore.get(id)
+            .map(payload -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .body(payload))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    public record ShareResponse(String id, String url) {}
+}
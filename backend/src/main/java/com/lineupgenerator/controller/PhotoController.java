@@ -0,0 +1,128 @@
+package com.lineupgenerator.controller;
+
+import com.lineupgenerator.service.PhotoService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/photos")
+public class PhotoController {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoController.class);
+    private static final CacheControl PHOTO = CacheControl.maxAge(Duration.ofDays(7)).cachePublic();
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private final PhotoService photoService;
+
+    public PhotoController(PhotoService photoService) {
+        this.photoService = photoService;
+    }
+
+    /**
+     * A player's photo, {@code size} being small (96px), medium (256px) or
+     * original. Files are handed to Tomcat's sendfile when the connector
+     * supports it, so the body is copied by the kernel rather than the JVM;
+     * the file is pinned in the cache until Tomcat has opened it. Otherwise the
+     * file is opened here, before the headers go out, so a later eviction
+     * cannot cut the body short.
+     */
+    @GetMapping("/{playerId}")
+    public ResponseEntity<Resource> getPhoto(@PathVariable String playerId,
+                                             @RequestParam(defaultValue = "small") String size,
+                                             @RequestHeader HttpHeaders headers,
+                                             HttpServletRequest request) {
+        PhotoService.Variant variant;
+        try {
+            variant = PhotoService.Variant.parse(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean head = "HEAD".equals(request.getMethod());
+        boolean sendfile = !head && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+        PhotoService.Photo file = null;
+        InputStream body = null;
+        // A file evicted between lookup and open is fetched or resized again, once
+        for (int attempt = 0; attempt < 2 && file == null; attempt++) {
+            Optional<PhotoService.Photo> photo;
+            try {
+                photo = photoService.photo(playerId, variant);
+            } catch (IOException e) {
+                log.warn("Could not load photo for {}: {}", playerId, e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+            }
+            if (photo.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (head || (sendfile && photoService.pinForSend(photo.get()))) {
+                file = photo.get();
+                continue;
+            }
+            sendfile = false;
+            try {
+                body = Files.newInputStream(photo.get().path());
+                file = photo.get();
+            } catch (NoSuchFileException e) {
+                // evicted meanwhile
+            } catch (IOException e) {
+                log.warn("Could not open photo for {}: {}", playerId, e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+        }
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        String etag = "\"" + Long.toHexString(file.lastModified()) + "-" + Long.toHexString(file.size()) + "\"";
+        if (PrecomputedResponses.matches(headers, etag)) {
+            closeQuietly(body);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(PHOTO).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(file.contentType()))
+            .contentLength(file.size())
+            .eTag(etag)
+            .cacheControl(PHOTO);
+        if (head) {
+            return response.build();
+        }
+        if (sendfile) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.path().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", file.size());
+            return response.build();
+        }
+        return response.body(new InputStreamResource(body));
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // nothing was read from it
+        }
+    }
+}
@@ -1,52 +1,180 @@
 package com.lineupgenerator.controller;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.lineupgenerator.dto.PlayerDTO;
 import com.lineupgenerator.dto.PlayerSearchRequest;
+import com.lineupgenerator.dto.PlayerView;
 import com.lineupgenerator.dto.SearchResultDTO;
 import com.lineupgenerator.service.PlayerService;
+import com.lineupgenerator.service.PositionIndex;
+import com.lineupgenerator.service.QueryDiagnostics;
+import com.lineupgenerator.service.ReferenceDataService;
+import com.lineupgenerator.service.SearchPage;
+import com.lineupgenerator.service.SearchSessions;
 
 @RestController
 @RequestMapping("/api/players")
 public class PlayerController {
     
     private static final Logger log = LoggerFactory.getLogger(PlayerController.class);
+    private static final int STREAM_FLUSH_INTERVAL = 64;
     private final PlayerService playerService;
+    private final ReferenceDataService referenceDataService;
+    private final SearchSessions searchSessions;
+    private final ObjectMapper objectMapper;
+    // Streamed lines are flushed every STREAM_FLUSH_INTERVAL items, not after each value
+    private final ObjectWriter streamWriter;
+    private final QueryDiagnostics diagnostics;
     
-    public PlayerController(PlayerService playerService) {
+    public PlayerController(PlayerService playerService, ReferenceDataService referenceDataService,
+                            SearchSessions searchSessions, ObjectMapper objectMapper,
+                            QueryDiagnostics diagnostics) {
         this.playerService = playerService;
+        this.referenceDataService = referenceDataService;
+        this.searchSessions = searchSessions;
+        this.objectMapper = objectMapper;
+        this.streamWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.diagnostics = diagnostics;
     }
     
+    /**
+     * {@code fields} (comma-separated {@link PlayerDTO} property names) limits
+     * each item to those properties. Responses are JSON, or CBOR when the
+     * client sends {@code Accept: application/cbor}.
+     *
+     * <p>Text queries return a {@code session} token; sending it back with the
+     * next, longer query lets the search narrow the previous matches instead
+     * of scanning every player. Matches are only remembered for a token the
+     * client has sent back, so one-off searches leave nothing behind.
+     */
     @GetMapping("/search")
-    public ResponseEntity<SearchResultDTO<PlayerDTO>> searchPlayers(
+    public ResponseEntity<SearchResultDTO<?>> searchPlayers(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String club,
             @RequestParam(required = false) String nationality,
             @RequestParam(required = false) String league,
             @RequestParam(required = false) String position,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String session
     ) {
+        long started = System.nanoTime();
         PlayerSearchRequest request = new PlayerSearchRequest(
-            query, club, nationality, league, position, page, size
+            query, club, nationality, league, position, page, size, cursor
         );
-        return ResponseEntity.ok(playerService.searchPlayers(request));
+        String searchSession = null;
+        String returnedSession = null;
+        if (query != null && !query.isBlank()) {
+            searchSession = searchSessions.isValidId(session) ? session : null;
+            returnedSession = searchSession != null ? searchSession : searchSessions.newSessionId();
+        }
+        try {
+            int fieldMask = fields != null ? PlayerView.parseFields(fields) : 0;
+            SearchPage result = playerService.searchPlayers(request, searchSession);
+            SearchResultDTO<?> body = fields != null ? result.project(fieldMask) : result.toDtos();
+            diagnostics.recordSearch(request, System.nanoTime() - started);
+            return ResponseEntity.ok(body.withSession(returnedSession));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Every match of the filters, streamed one player per line as NDJSON (or as
+     * Server-Sent Events with {@code Accept: text/event-stream}) while the scan
+     * runs. Matches arrive in table order, not relevance order. Writes block on
+     * the client connection, so a slow reader slows the scan instead of
+     * buffering results.
+     */
+    @GetMapping("/search/stream")
+    public ResponseEntity<StreamingResponseBody> streamPlayers(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String club,
+            @RequestParam(required = false) String nationality,
+            @RequestParam(required = false) String league,
+            @RequestParam(required = false) String position,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        int fieldMask;
+        try {
+            fieldMask = fields != null ? PlayerView.parseFields(fields) : PlayerView.ALL_FIELDS;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        PlayerSearchRequest request = new PlayerSearchRequest(query, club, nationality, league, position, 0, 0);
+        
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                long[] written = {0};
+                playerService.streamMatches(request, (table, ordinal) -> {
+                    if (sse) generator.writeRaw("data: ");
+                    streamWriter.writeValue(generator, new PlayerView(table, ordinal, fieldMask));
+                    generator.writeRaw(sse ? "\n\n" : "\n");
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) generator.flush();
+                });
+            } catch (IOException e) {
+                log.debug("Search stream aborted: {}", e.getMessage());
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+    
+    @GetMapping("/eligible")
+    public ResponseEntity<SearchResultDTO<PlayerDTO>> getEligiblePlayers(
+            @RequestParam String slot,
+            @RequestParam(required = false) String league,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "30") int size
+    ) {
+        if (PositionIndex.canonicalize(slot) == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        int safePage = Math.max(page, 0);
+        int safeSize = size <= 0 || size > 100 ? 30 : size;
+        return ResponseEntity.ok(playerService.getEligiblePlayers(slot, league, safePage, safeSize));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<PlayerDTO> getPlayer(@PathVariable String id) {
+    public ResponseEntity<?> getPlayer(@PathVariable String id, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            int fieldMask;
+            try {
+                fieldMask = PlayerView.parseFields(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            return playerService.getPlayerView(id, fieldMask)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        }
         return playerService.getPlayer(id)
             .map(PlayerDTO::from)
             .map(ResponseEntity::ok)
@@ -54,27 +182,27 @@ public class PlayerController {
     }
     
     @GetMapping("/clubs")
-    public ResponseEntity<List<String>> getClubs() {
-        return ResponseEntity.ok(playerService.getClubs());
+    public ResponseEntity<byte[]> getClubs(@RequestHeader HttpHeaders headers) {
+        return PrecomputedResponses.json(referenceDataService.clubs(), headers, datasetCaching());
     }
     
     @GetMapping("/nationalities")
-    public ResponseEntity<List<String>> getNationalities() {
-        return ResponseEntity.ok(playerService.getNationalities());
+    public ResponseEntity<byte[]> getNationalities(@RequestHeader HttpHeaders headers) {
+        return PrecomputedResponses.json(referenceDataService.nationalities(), headers, datasetCaching());
     }
     
     @GetMapping("/leagues")
-    public ResponseEntity<List<String>> getLeagues() {
-        return ResponseEntity.ok(playerService.getLeagues());
+    public ResponseEntity<byte[]> getLeagues(@RequestHeader HttpHeaders headers) {
+        return PrecomputedResponses.json(referenceDataService.leagues(), headers, datasetCaching());
+    }
+    
+    private CacheControl datasetCaching() {
+        return PrecomputedResponses.datasetCaching(playerService.dataset());
     }
     
     @GetMapping("/count")
     public ResponseEntity<Integer> getPlayerCount() {
         return ResponseEntity.ok(playerService.getPlayerCount());
     }
-    
-    @PostMapping("/reload")
-    public ResponseEntity<Integer> reloadPlayers() {
-        return ResponseEntity.ok(playerService.reloadPlayers());
-    }
+
 }
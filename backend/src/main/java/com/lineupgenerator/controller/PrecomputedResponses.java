@@ -0,0 +1,100 @@
+package com.lineupgenerator.controller;
+
+import com.lineupgenerator.service.PlayerDataset;
+import com.lineupgenerator.service.PrecomputedBody;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Turns a {@link PrecomputedBody} into a response: gzip when the client accepts
+ * it, 304 when the client already holds the current representation. The cached
+ * arrays are written as-is, so nothing is serialized or compressed per request.
+ */
+final class PrecomputedResponses {
+
+    /** Lists derived from the player data; they only change on reload. */
+    static final CacheControl DATASET = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+    /** Lists from a dataset that is still loading must be revalidated. */
+    static final CacheControl LOADING = CacheControl.noCache();
+    /** Formations are fixed for the lifetime of the process. */
+    static final CacheControl STATIC = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    private PrecomputedResponses() {}
+
+    /** {@link #DATASET}, or {@link #LOADING} while a background load is still adding leagues. */
+    static CacheControl datasetCaching(PlayerDataset dataset) {
+        return dataset.partial() ? LOADING : DATASET;
+    }
+
+    static ResponseEntity<byte[]> json(PrecomputedBody body, HttpHeaders request, CacheControl cacheControl) {
+        return body(body, MediaType.APPLICATION_JSON, request, cacheControl);
+    }
+
+    static ResponseEntity<byte[]> body(PrecomputedBody body, MediaType contentType, HttpHeaders request,
+                                       CacheControl cacheControl) {
+        boolean gzip = body.gzip() != null && acceptsGzip(request.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? body.gzipEtag() : body.etag();
+
+        if (matches(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(contentType)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.identity());
+    }
+
+    static boolean matches(HttpHeaders request, String etag) {
+        List<String> candidates;
+        try {
+            candidates = request.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (String candidate : candidates) {
+            if (candidate.equals("*")) return true;
+            // If-None-Match uses weak comparison
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) continue;
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) return true;
+        }
+        return false;
+    }
+}
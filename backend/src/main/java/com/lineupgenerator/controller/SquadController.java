@@ -0,0 +1,43 @@
+package com.lineupgenerator.controller;
+
+import com.lineupgenerator.service.PlayerService;
+import com.lineupgenerator.service.SquadService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class SquadController {
+
+    private final SquadService squadService;
+    private final PlayerService playerService;
+
+    public SquadController(SquadService squadService, PlayerService playerService) {
+        this.squadService = squadService;
+        this.playerService = playerService;
+    }
+
+    @GetMapping("/clubs/{club}/squad")
+    public ResponseEntity<byte[]> getSquad(@PathVariable String club, @RequestHeader HttpHeaders headers) {
+        return squadService.squadJson(club)
+            .map(body -> PrecomputedResponses.json(body, headers, datasetCaching()))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/leagues/{league}/clubs")
+    public ResponseEntity<byte[]> getLeagueClubs(@PathVariable String league, @RequestHeader HttpHeaders headers) {
+        return squadService.leagueClubsJson(league)
+            .map(body -> PrecomputedResponses.json(body, headers, datasetCaching()))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    private CacheControl datasetCaching() {
+        return PrecomputedResponses.datasetCaching(playerService.dataset());
+    }
+}
@@ -0,0 +1,42 @@
+package com.lineupgenerator.controller;
+
+import com.lineupgenerator.dto.SuggestRequest;
+import com.lineupgenerator.dto.SuggestionsDTO;
+import com.lineupgenerator.service.LineupSuggestions;
+import com.lineupgenerator.service.QueryDiagnostics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/lineup")
+public class SuggestionController {
+
+    private final LineupSuggestions suggestions;
+    private final QueryDiagnostics diagnostics;
+
+    public SuggestionController(LineupSuggestions suggestions, QueryDiagnostics diagnostics) {
+        this.suggestions = suggestions;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Ranked replacements for the player in {@code slotId} of the posted
+     * lineup. Players already in the lineup are never suggested.
+     */
+    @PostMapping("/suggest")
+    public ResponseEntity<SuggestionsDTO> suggest(@RequestBody SuggestRequest request) {
+        if (request.lineup() == null || request.lineup().formationId() == null || request.slotId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        long started = System.nanoTime();
+        Optional<SuggestionsDTO> result = suggestions.suggest(request.lineup(), request.slotId(), request.limit());
+        diagnostics.recordTiming("suggest", () -> "formation=" + request.lineup().formationId()
+            + "&slot=" + request.slotId() + "&limit=" + request.limit(), System.nanoTime() - started);
+        return result.map(ResponseEntity::ok).orElse(ResponseEntity.badRequest().build());
+    }
+}
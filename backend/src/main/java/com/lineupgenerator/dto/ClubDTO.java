@@ -0,0 +1,8 @@
+package com.lineupgenerator.dto;
+
+public record ClubDTO(
+    String name,
+    String slug,
+    String league,
+    int playerCount
+) {}
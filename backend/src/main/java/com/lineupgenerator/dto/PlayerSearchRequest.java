@@ -7,10 +7,16 @@ public record PlayerSearchRequest(
     String league,
     String position,
     int page,
-    int size
+    int size,
+    String cursor
 ) {
     public PlayerSearchRequest {
         if (page < 0) page = 0;
         if (size <= 0 || size > 50) size = 20;
+        if (cursor != null && cursor.isBlank()) cursor = null;
+    }
+    
+    public PlayerSearchRequest(String query, String club, String nationality, String league, String position, int page, int size) {
+        this(query, club, nationality, league, position, page, size, null);
     }
 }
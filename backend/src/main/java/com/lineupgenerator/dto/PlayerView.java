@@ -0,0 +1,95 @@
+package com.lineupgenerator.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.lineupgenerator.service.PlayerTable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A player written straight from the table columns, limited to the requested
+ * {@link Field}s. Property names and order match {@link PlayerDTO}; no Player or
+ * DTO is built and unrequested columns are never read.
+ */
+@JsonSerialize(using = PlayerView.Serializer.class)
+public record PlayerView(PlayerTable table, int ordinal, int fields) {
+
+    public enum Field {
+        ID("id"),
+        NAME("name"),
+        DISPLAY_NAME("displayName"),
+        POSITIONS("positions"),
+        CLUB("club"),
+        NATIONALITY("nationality"),
+        LEAGUE("league"),
+        PHOTO_URL("photoUrl"),
+        NUMBER("number");
+
+        private final String property;
+
+        Field(String property) {
+            this.property = property;
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    public static final int ALL_FIELDS = (1 << Field.values().length) - 1;
+
+    /**
+     * Parses a comma-separated {@code fields} parameter into a field mask.
+     * Throws {@link IllegalArgumentException} for unknown names.
+     */
+    public static int parseFields(String fields) {
+        int mask = 0;
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            Field match = null;
+            for (Field field : Field.values()) {
+                if (field.property.equals(trimmed)) match = field;
+            }
+            if (match == null) throw new IllegalArgumentException("Unknown field: " + trimmed);
+            mask |= match.bit();
+        }
+        if (mask == 0) throw new IllegalArgumentException("No fields requested");
+        return mask;
+    }
+
+    private boolean has(Field field) {
+        return (fields & field.bit()) != 0;
+    }
+
+    public static final class Serializer extends JsonSerializer<PlayerView> {
+        @Override
+        public void serialize(PlayerView view, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            PlayerTable table = view.table();
+            int ordinal = view.ordinal();
+            gen.writeStartObject();
+            if (view.has(Field.ID)) gen.writeStringField("id", table.id(ordinal));
+            if (view.has(Field.NAME)) gen.writeStringField("name", table.name(ordinal));
+            if (view.has(Field.DISPLAY_NAME)) gen.writeStringField("displayName", table.displayName(ordinal));
+            if (view.has(Field.POSITIONS)) {
+                List<String> positions = table.positions(ordinal);
+                gen.writeArrayFieldStart("positions");
+                for (String position : positions) gen.writeString(position);
+                gen.writeEndArray();
+            }
+            if (view.has(Field.CLUB)) gen.writeStringField("club", table.club(ordinal));
+            if (view.has(Field.NATIONALITY)) gen.writeStringField("nationality", table.nationality(ordinal));
+            if (view.has(Field.LEAGUE)) gen.writeStringField("league", table.league(ordinal));
+            if (view.has(Field.PHOTO_URL)) gen.writeStringField("photoUrl", table.photoUrl(ordinal));
+            if (view.has(Field.NUMBER)) {
+                Integer number = table.number(ordinal);
+                if (number == null) gen.writeNullField("number");
+                else gen.writeNumberField("number", number);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.lineupgenerator.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public record SearchResultDTO<T>(
@@ -7,10 +9,26 @@ public record SearchResultDTO<T>(
     int page,
     int size,
     long total,
-    int totalPages
+    int totalPages,
+    String nextCursor,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String session,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Boolean partial
 ) {
     public static <T> SearchResultDTO<T> of(List<T> items, int page, int size, long total) {
+        return of(items, page, size, total, null);
+    }
+    
+    public static <T> SearchResultDTO<T> of(List<T> items, int page, int size, long total, String nextCursor) {
         int totalPages = (int) Math.ceil((double) total / size);
-        return new SearchResultDTO<>(items, page, size, total, totalPages);
+        return new SearchResultDTO<>(items, page, size, total, totalPages, nextCursor, null, null);
+    }
+    
+    public SearchResultDTO<T> withSession(String session) {
+        return new SearchResultDTO<>(items, page, size, total, totalPages, nextCursor, session, partial);
+    }
+    
+    /** Only a partial result carries the flag; complete ones omit it. */
+    public SearchResultDTO<T> withPartial(boolean partial) {
+        return new SearchResultDTO<>(items, page, size, total, totalPages, nextCursor, session, partial ? Boolean.TRUE : null);
     }
 }
@@ -0,0 +1,14 @@
+package com.lineupgenerator.dto;
+
+import java.util.List;
+
+public record SquadDTO(
+    String club,
+    String slug,
+    String league,
+    int playerCount,
+    List<PlayerDTO> goalkeepers,
+    List<PlayerDTO> defenders,
+    List<PlayerDTO> midfielders,
+    List<PlayerDTO> attackers
+) {}
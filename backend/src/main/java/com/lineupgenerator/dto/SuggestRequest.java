@@ -0,0 +1,13 @@
+package com.lineupgenerator.dto;
+
+import com.lineupgenerator.model.Lineup;
+
+public record SuggestRequest(
+    Lineup lineup,
+    String slotId,
+    int limit
+) {
+    public SuggestRequest {
+        if (limit <= 0 || limit > 50) limit = 10;
+    }
+}
@@ -0,0 +1,11 @@
+package com.lineupgenerator.dto;
+
+import java.util.List;
+
+/** A replacement candidate; {@code shared} lists what it has in common with the rest of the XI. */
+public record SuggestionDTO(
+    PlayerDTO player,
+    String fit,
+    int score,
+    List<String> shared
+) {}
@@ -0,0 +1,12 @@
+package com.lineupgenerator.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public record SuggestionsDTO(
+    String slotId,
+    String slot,
+    List<SuggestionDTO> items,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Boolean partial
+) {}
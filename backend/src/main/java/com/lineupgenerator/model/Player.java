@@ -1,7 +1,11 @@
 package com.lineupgenerator.model;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
 
 public class Player {
     private final String id;
@@ -15,7 +19,7 @@ public class Player {
     private final Integer number;
 
     public Player(String id, String name, String displayName, List<String> positions, String club, String nationality, String league, String photoUrl, Integer number) {
-        this.id = id == null ? UUID.randomUUID().toString() : id;
+        this.id = id == null ? stableId(name, club, league) : id;
         this.name = name;
         this.displayName = displayName == null && name != null ? formatDisplayName(name) : displayName;
         this.positions = positions;
@@ -62,6 +66,25 @@ public class Player {
         return number;
     }
     
+    /**
+     * Deterministic id for records without one: the first 12 hex digits of
+     * md5("name_club_league"), lowercased. Matches the scraper's own id scheme
+     * (scraper/models.py) so ids agree whichever side generated them.
+     */
+    public static String stableId(String name, String club, String league) {
+        String key = String.join("_", lower(name), lower(club), lower(league));
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+    
     private static String formatDisplayName(String fullName) {
         if (fullName == null || fullName.isBlank()) return "";
         String[] parts = fullName.trim().split("\\s+");
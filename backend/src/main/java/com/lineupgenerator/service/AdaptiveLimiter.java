@@ -0,0 +1,121 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.config.AdmissionProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one request class, adjusted by AIMD on observed
+ * latency: a completion slower than the target cuts the limit by 10% (at most
+ * once per target-latency window), and a fast completion while at least half
+ * the limit is in use grows it by {@code 1/limit}, i.e. about one per limit's
+ * worth of completions.
+ *
+ * <p>Admission is a CAS on the in-flight count. Only requests that find the
+ * limit reached take the lock, to wait in a bounded queue for a release.
+ */
+final class AdaptiveLimiter {
+
+    private static final double BACKOFF = 0.9;
+
+    private final AdmissionProperties.Limits limits;
+    private final long targetNanos;
+    private final AtomicLong limitBits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    final LongAdder rejected = new LongAdder();
+
+    AdaptiveLimiter(AdmissionProperties.Limits limits) {
+        this.limits = limits;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(limits.targetLatencyMs());
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(limits.initialLimit()));
+    }
+
+    /** Takes a slot, waiting up to the queue timeout if none is free; false if rejected. */
+    boolean acquire() throws InterruptedException {
+        if (tryAcquire()) return true;
+        if (limits.queueSize() <= 0 || limits.queueTimeoutMs() <= 0) return reject();
+        if (queued.incrementAndGet() > limits.queueSize()) {
+            queued.decrementAndGet();
+            return reject();
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(limits.queueTimeoutMs());
+        lock.lock();
+        try {
+            while (!tryAcquire()) {
+                if (remaining <= 0) return reject();
+                remaining = released.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            queued.decrementAndGet();
+        }
+    }
+
+    /** Frees a slot; {@code latencyNanos} below zero means the request gives no latency sample. */
+    void release(long latencyNanos) {
+        int before = inFlight.getAndDecrement();
+        if (latencyNanos >= 0) adjust(latencyNanos, before);
+        if (queued.get() > 0) {
+            lock.lock();
+            try {
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private boolean tryAcquire() {
+        int limit = (int) limit();
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    private boolean reject() {
+        rejected.increment();
+        return false;
+    }
+
+    private void adjust(long latencyNanos, int inFlightBefore) {
+        long bits = limitBits.get();
+        double limit = Double.longBitsToDouble(bits);
+        double next;
+        if (latencyNanos > targetNanos) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            if (now - last < targetNanos || !lastDecrease.compareAndSet(last, now)) return;
+            next = Math.max(limits.minLimit(), limit * BACKOFF);
+        } else if (inFlightBefore * 2 >= limit) {
+            next = Math.min(limits.maxLimit(), limit + 1 / limit);
+        } else {
+            return;
+        }
+        // A lost race just drops this one adjustment
+        limitBits.compareAndSet(bits, Double.doubleToLongBits(next));
+    }
+}
@@ -0,0 +1,66 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.config.AdmissionProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Separate admission limits per {@link RequestClass}, so a burst in one class
+ * (exports after a match, an admin reload) queues and sheds within its own
+ * limits instead of taking the threads interactive search needs. Classes
+ * without configured limits are always admitted.
+ */
+@Component
+public class AdmissionControl {
+
+    public record ClassStats(String requestClass, double limit, int inFlight, int queued,
+                             long rejectedBusy, long rejectedRate) {}
+
+    private final Map<RequestClass, AdaptiveLimiter> limiters = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, ClientRateLimiter> rateLimiters = new EnumMap<>(RequestClass.class);
+
+    public AdmissionControl(AdmissionProperties properties) {
+        for (RequestClass requestClass : RequestClass.values()) {
+            AdmissionProperties.Limits limits = properties.classes().get(requestClass.name().toLowerCase(Locale.ROOT));
+            if (limits == null) continue;
+            limiters.put(requestClass, new AdaptiveLimiter(limits));
+            rateLimiters.put(requestClass, new ClientRateLimiter(limits.ratePerSecond(), limits.burst()));
+        }
+    }
+
+    /** 0 if {@code client} is within its rate for the class, otherwise nanoseconds until it is. */
+    public long rateLimitedFor(RequestClass requestClass, String client) {
+        ClientRateLimiter rateLimiter = rateLimiters.get(requestClass);
+        return rateLimiter != null ? rateLimiter.tryAcquire(client) : 0;
+    }
+
+    /** Takes a concurrency slot for the class, queueing briefly when it is full; false if rejected. */
+    public boolean acquire(RequestClass requestClass) throws InterruptedException {
+        AdaptiveLimiter limiter = limiters.get(requestClass);
+        return limiter == null || limiter.acquire();
+    }
+
+    /** Returns a slot taken by {@link #acquire}; a negative latency gives no sample for the limit. */
+    public void release(RequestClass requestClass, long latencyNanos) {
+        AdaptiveLimiter limiter = limiters.get(requestClass);
+        if (limiter != null) limiter.release(latencyNanos);
+    }
+
+    public List<ClassStats> stats() {
+        List<ClassStats> stats = new ArrayList<>();
+        limiters.forEach((requestClass, limiter) -> stats.add(new ClassStats(
+            requestClass.name().toLowerCase(Locale.ROOT),
+            Math.round(limiter.limit() * 10) / 10.0,
+            limiter.inFlight(),
+            limiter.queued(),
+            limiter.rejected.sum(),
+            rateLimiters.get(requestClass).rejected.sum()
+        )));
+        return stats;
+    }
+}
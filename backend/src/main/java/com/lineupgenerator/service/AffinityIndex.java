@@ -0,0 +1,97 @@
+package com.lineupgenerator.service;
+
+import java.util.*;
+
+/**
+ * Players grouped by canonical slot code and by club, league or nationality,
+ * so "strikers from these clubs" is a few array lookups. A player is listed
+ * under every slot code its primary or secondary positions resolve to. Built
+ * once per loaded player list alongside the {@link PositionIndex}.
+ */
+public final class AffinityIndex {
+
+    public enum Attribute { CLUB, LEAGUE, NATIONALITY }
+
+    private static final int[] NONE = new int[0];
+
+    // postings[attribute][code][attribute id] -> ordinals in load order
+    private final int[][][][] postings;
+
+    private AffinityIndex(int[][][][] postings) {
+        this.postings = postings;
+    }
+
+    public static AffinityIndex build(PlayerTable table) {
+        List<String> codes = PositionIndex.CANONICAL_CODES;
+        PlayerTable.Dictionary sourceCodes = table.positionCodes();
+        int[] canonical = new int[sourceCodes.size()];
+        for (int code = 0; code < canonical.length; code++) {
+            canonical[code] = codes.indexOf(PositionIndex.canonicalize(sourceCodes.value(code)));
+        }
+
+        int size = table.size();
+        int[] slotMasks = new int[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int mask = 0;
+            for (int i = 0; i < table.positionCount(ordinal); i++) {
+                int id = table.positionCodeId(ordinal, i);
+                if (id >= 0 && canonical[id] >= 0) mask |= 1 << canonical[id];
+            }
+            slotMasks[ordinal] = mask;
+        }
+
+        Attribute[] attributes = Attribute.values();
+        int[][][][] postings = new int[attributes.length][][][];
+        for (Attribute attribute : attributes) {
+            int values = dictionary(table, attribute).size();
+            int[][] counts = new int[codes.size()][values];
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                int id = id(table, attribute, ordinal);
+                if (id < 0) continue;
+                for (int mask = slotMasks[ordinal]; mask != 0; mask &= mask - 1) {
+                    counts[Integer.numberOfTrailingZeros(mask)][id]++;
+                }
+            }
+            int[][][] lists = new int[codes.size()][values][];
+            for (int code = 0; code < codes.size(); code++) {
+                for (int id = 0; id < values; id++) {
+                    lists[code][id] = counts[code][id] == 0 ? NONE : new int[counts[code][id]];
+                    counts[code][id] = 0;
+                }
+            }
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                int id = id(table, attribute, ordinal);
+                if (id < 0) continue;
+                for (int mask = slotMasks[ordinal]; mask != 0; mask &= mask - 1) {
+                    int code = Integer.numberOfTrailingZeros(mask);
+                    lists[code][id][counts[code][id]++] = ordinal;
+                }
+            }
+            postings[attribute.ordinal()] = lists;
+        }
+        return new AffinityIndex(postings);
+    }
+
+    /** Players fitting canonical slot {@code code} whose attribute has dictionary id {@code id}. */
+    public int[] players(String code, Attribute attribute, int id) {
+        int slot = PositionIndex.CANONICAL_CODES.indexOf(code);
+        int[][] byId = slot < 0 ? null : postings[attribute.ordinal()][slot];
+        return byId == null || id < 0 || id >= byId.length ? NONE : byId[id];
+    }
+
+    public static int id(PlayerTable table, Attribute attribute, int ordinal) {
+        return switch (attribute) {
+            case CLUB -> table.clubId(ordinal);
+            case LEAGUE -> table.leagueId(ordinal);
+            case NATIONALITY -> table.nationalityId(ordinal);
+        };
+    }
+
+    private static PlayerTable.Dictionary dictionary(PlayerTable table, Attribute attribute) {
+        return switch (attribute) {
+            case CLUB -> table.clubs();
+            case LEAGUE -> table.leagues();
+            case NATIONALITY -> table.nationalities();
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.dto.PlayerSearchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Keeps the hottest search keys across restarts. The most frequent searches
+ * ({@link QueryDiagnostics#topQueries}) are written to a small text file
+ * periodically and on shutdown; after the next startup load they are replayed
+ * through the cached search on a low-priority thread, together with the
+ * club, nationality, league and squad bodies, before readiness is reported.
+ *
+ * <p>Counts read at startup are added to later snapshots, halved at each
+ * write, so a restart shortly after a deploy does not replace a long history
+ * with a few minutes of traffic.
+ */
+@Component
+public class CacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final PlayerService playerService;
+    private final ReferenceDataService referenceDataService;
+    private final SquadService squadService;
+    private final QueryDiagnostics diagnostics;
+    private final boolean enabled;
+    private final Path file;
+    private final int maxKeys;
+
+    private Map<String, Long> carried = Map.of();
+    private volatile boolean done;
+
+    public CacheWarmer(PlayerService playerService, ReferenceDataService referenceDataService,
+                       SquadService squadService, QueryDiagnostics diagnostics,
+                       @Value("${app.warmup.enabled:true}") boolean enabled,
+                       @Value("${app.warmup.file:./data/warmup/search-keys.txt}") String file,
+                       @Value("${app.warmup.max-keys:500}") int maxKeys) {
+        this.playerService = playerService;
+        this.referenceDataService = referenceDataService;
+        this.squadService = squadService;
+        this.diagnostics = diagnostics;
+        this.enabled = enabled;
+        this.file = Paths.get(file).toAbsolutePath();
+        this.maxKeys = maxKeys;
+        this.done = !enabled;
+    }
+
+    /** True once the replay has finished (or warm-up is disabled). */
+    public boolean isDone() {
+        return done;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        playerService.loaded().thenRun(() -> {
+            Thread thread = new Thread(this::replay, "cache-warmer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        });
+    }
+
+    private void replay() {
+        long started = System.nanoTime();
+        try {
+            Map<String, Long> keys = read();
+            synchronized (this) {
+                carried = keys;
+            }
+            // Warm-up searches all miss by design; they would crowd real misses out of the diagnostics
+            int searches = diagnostics.replaying(() -> replaySearches(keys.keySet()));
+            referenceDataService.clubs();
+            referenceDataService.nationalities();
+            referenceDataService.leagues();
+            for (String club : playerService.dataset().table().clubs().values()) {
+                squadService.squadJson(club);
+            }
+            log.info("Cache warm-up replayed {} searches in {} ms", searches, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed", e);
+        } finally {
+            done = true;
+        }
+    }
+
+    private int replaySearches(Iterable<String> keys) {
+        int searches = 0;
+        for (String key : keys) {
+            PlayerSearchRequest request = QueryDiagnostics.parseCanonical(key);
+            if (request == null) continue;
+            try {
+                playerService.searchPlayers(request, null);
+                searches++;
+            } catch (RuntimeException e) {
+                log.debug("Skipping warm-up key {}: {}", key, e.getMessage());
+            }
+        }
+        return searches;
+    }
+
+    @Scheduled(fixedDelayString = "${app.warmup.persist-interval-ms:300000}",
+               initialDelayString = "${app.warmup.persist-interval-ms:300000}")
+    public void persistPeriodically() {
+        if (enabled) persist();
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        if (enabled) persist();
+    }
+
+    synchronized void persist() {
+        // Until the replay has read the previous file, writing would drop it
+        if (!done) return;
+        Map<String, Long> halved = new HashMap<>();
+        carried.forEach((key, count) -> {
+            if (count > 1) halved.put(key, count / 2);
+        });
+        carried = halved;
+        Map<String, Long> merged = new HashMap<>(halved);
+        for (QueryDiagnostics.QueryCount query : diagnostics.topQueries(maxKeys)) {
+            if (QueryDiagnostics.parseCanonical(query.params()) != null) {
+                merged.merge(query.params(), query.count(), Long::sum);
+            }
+        }
+        if (merged.isEmpty()) return;
+
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(merged.entrySet());
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        ranked = ranked.subList(0, Math.min(maxKeys, ranked.size()));
+
+        StringBuilder out = new StringBuilder("# count\tsearch parameters, hottest first\n");
+        for (Map.Entry<String, Long> entry : ranked) {
+            out.append(entry.getValue()).append('\t').append(entry.getKey()).append('\n');
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, out, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write warm-up keys to {}", file, e);
+        }
+    }
+
+    private Map<String, Long> read() {
+        Map<String, Long> keys = new LinkedHashMap<>();
+        if (!Files.exists(file)) return keys;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (line.startsWith("#") || tab < 0) continue;
+                try {
+                    keys.put(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)));
+                } catch (NumberFormatException e) {
+                    // Skip damaged lines
+                }
+                if (keys.size() >= maxKeys) break;
+            }
+        } catch (IOException e) {
+            log.warn("Could not read warm-up keys from {}", file, e);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,49 @@
+package com.lineupgenerator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token bucket in its GCRA form: each client has one atomic
+ * "theoretical arrival time" that every admitted request pushes forward by
+ * one emission interval. A request is admitted while that time is no more
+ * than {@code burst - 1} intervals ahead of now, so checking and taking a
+ * token is a single CAS.
+ */
+final class ClientRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> clients;
+    final LongAdder rejected = new LongAdder();
+
+    ClientRateLimiter(double ratePerSecond, int burst) {
+        this.intervalNanos = ratePerSecond > 0 ? (long) (1_000_000_000L / ratePerSecond) : 0;
+        this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+        this.clients = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    }
+
+    /** 0 if the client may proceed now, otherwise nanoseconds until it may. */
+    long tryAcquire(String client) {
+        if (intervalNanos == 0) return 0;
+        long now = System.nanoTime();
+        AtomicLong arrival = clients.get(client, c -> new AtomicLong(now));
+        for (;;) {
+            long current = arrival.get();
+            long base = current - now > 0 ? current : now;
+            long ahead = base - now;
+            if (ahead > toleranceNanos) {
+                rejected.increment();
+                return ahead - toleranceNanos;
+            }
+            if (arrival.compareAndSet(current, base + intervalNanos)) return 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.dto.PlayerDTO;
+import com.lineupgenerator.model.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps replicas on one dataset through a shared directory. A reload parses
+ * the scraper output once, on the node that receives it, and writes the merged
+ * players and their alias ids as an immutable snapshot
+ * ({@code players-<millis>-<sha256 prefix>.json.gz}) before swapping the
+ * {@code CURRENT} pointer file. Every replica polls the pointer and applies a
+ * new snapshot as one dataset swap, without parsing or merging the source
+ * files again. League uploads are shared the same way.
+ *
+ * <p>Disabled when {@code app.replication.dir} is empty; reloads then stay
+ * local to the node.
+ */
+@Service
+public class DatasetReplication {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetReplication.class);
+    private static final String POINTER = "CURRENT";
+    private static final Pattern SNAPSHOT = Pattern.compile("players-\\d{13}-([0-9a-f]{16})\\.json\\.gz");
+
+    /** Which shared snapshot this node serves; {@code inSync} is false while it lags the pointer. */
+    public record Status(boolean enabled, long localVersion, String applied, String current, boolean inSync,
+                         String lastError) {}
+
+    private final PlayerService playerService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path dir;
+    private final int keepSnapshots;
+
+    private volatile String applied;
+    private volatile String current;
+    private volatile String lastError;
+
+    public DatasetReplication(PlayerService playerService,
+                              @Value("${app.replication.dir:}") String dir,
+                              @Value("${app.replication.keep-snapshots:3}") int keepSnapshots) {
+        this.playerService = playerService;
+        this.dir = dir.isBlank() ? null : Paths.get(dir).toAbsolutePath();
+        this.keepSnapshots = Math.max(1, keepSnapshots);
+    }
+
+    public boolean enabled() {
+        return dir != null;
+    }
+
+    public Status status() {
+        String pointer = current;
+        return new Status(enabled(), playerService.dataset().version(), applied, pointer,
+            !enabled() || (pointer == null || pointer.equals(applied)), lastError);
+    }
+
+    /**
+     * Parses the scraper output, publishes it as the shared snapshot and
+     * serves it here; the other replicas follow on their next poll.
+     */
+    public synchronized int reload() throws IOException {
+        PlayerIdentity.Resolved players = playerService.loadFileSystemPlayers();
+        String name = write(players);
+        PlayerDataset dataset = playerService.publishPlayers(players);
+        applied = name;
+        current = name;
+        lastError = null;
+        log.info("Published dataset snapshot {} ({} players)", name, dataset.table().size());
+        prune(name);
+        return dataset.table().size();
+    }
+
+    /**
+     * Applies a local dataset change and, when enabled, shares the result as
+     * the new snapshot. Polling waits meanwhile, so an older snapshot cannot
+     * overwrite the change before it is shared. If the snapshot cannot be
+     * written the change stays applied here and the exception is rethrown.
+     */
+    public synchronized PlayerDataset publish(Supplier<PlayerDataset> change) throws IOException {
+        PlayerDataset dataset = change.get();
+        if (!enabled()) return dataset;
+        PlayerTable table = dataset.table();
+        List<Player> players = new ArrayList<>(table.size());
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            players.add(table.player(ordinal));
+        }
+        String name = write(new PlayerIdentity.Resolved(players, table.aliases()));
+        applied = name;
+        current = name;
+        lastError = null;
+        log.info("Published dataset snapshot {} ({} players)", name, players.size());
+        prune(name);
+        return dataset;
+    }
+
+    @Scheduled(fixedDelayString = "${app.replication.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        // The startup load publishes its own datasets until it completes
+        if (!enabled() || !playerService.loaded().isDone()) return;
+        String pointer;
+        try {
+            pointer = Files.readString(dir.resolve(POINTER), StandardCharsets.UTF_8).trim();
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            lastError = "Could not read " + POINTER + ": " + e.getMessage();
+            return;
+        }
+        current = pointer;
+        if (pointer.equals(applied)) return;
+        try {
+            long started = System.nanoTime();
+            PlayerIdentity.Resolved players = read(pointer);
+            PlayerDataset dataset = playerService.publishPlayers(players);
+            applied = pointer;
+            lastError = null;
+            log.info("Applied dataset snapshot {} ({} players) in {} ms", pointer, dataset.table().size(),
+                (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // Retried on the next poll; a snapshot replaced meanwhile is simply skipped
+            String error = "Could not apply " + pointer + ": " + e.getMessage();
+            if (!error.equals(lastError)) log.warn(error);
+            lastError = error;
+        }
+    }
+
+    private record Snapshot(List<PlayerDTO> players, Map<String, String> aliases) {}
+
+    private String write(PlayerIdentity.Resolved resolved) throws IOException {
+        Files.createDirectories(dir);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            objectMapper.writeValue(gzip,
+                new Snapshot(resolved.players().stream().map(PlayerDTO::from).toList(), resolved.aliases()));
+        }
+        byte[] bytes = out.toByteArray();
+        String name = "players-" + System.currentTimeMillis() + "-" + hash(bytes) + ".json.gz";
+        replace(dir.resolve(name), bytes);
+        replace(dir.resolve(POINTER), (name + "\n").getBytes(StandardCharsets.UTF_8));
+        return name;
+    }
+
+    private PlayerIdentity.Resolved read(String name) throws IOException {
+        Matcher matcher = SNAPSHOT.matcher(name);
+        if (!matcher.matches()) throw new IOException("Not a snapshot name: " + name);
+        byte[] bytes = Files.readAllBytes(dir.resolve(name));
+        if (!hash(bytes).equals(matcher.group(1))) throw new IOException("Checksum mismatch");
+        Snapshot snapshot;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            snapshot = objectMapper.readValue(in, Snapshot.class);
+        }
+        List<Player> players = snapshot.players().stream()
+            .map(p -> new Player(p.id(), p.name(), p.displayName(), p.positions(), p.club(),
+                p.nationality(), p.league(), p.photoUrl(), p.number()))
+            .toList();
+        return new PlayerIdentity.Resolved(players, snapshot.aliases() == null ? Map.of() : snapshot.aliases());
+    }
+
+    // Older snapshots stay briefly so a replica that just read the pointer can still open its file
+    private void prune(String keep) {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> snapshots = files
+                .filter(path -> SNAPSHOT.matcher(path.getFileName().toString()).matches())
+                .sorted()
+                .toList();
+            for (int i = 0; i < snapshots.size() - keepSnapshots; i++) {
+                if (!snapshots.get(i).getFileName().toString().equals(keep)) Files.deleteIfExists(snapshots.get(i));
+            }
+        } catch (IOException e) {
+            log.warn("Could not prune old snapshots in {}", dir, e);
+        }
+    }
+
+    private static void replace(Path path, byte[] bytes) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.model.Formation;
+import com.lineupgenerator.model.Position;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formation picker thumbnails for every formation, flip and pitch style,
+ * packed into one sprite sheet. Rows are formations; each row holds the four
+ * flip combinations for every pitch style. The SVG sheet draws each pitch and
+ * each flipped formation once as a symbol and places tiles with {@code <use>},
+ * so it stays small; the PNG sheet has the same layout at twice the size.
+ *
+ * <p>Formations are fixed at startup, so both sheets are rendered once.
+ */
+@Service
+public class FormationSprites {
+
+    public static final int TILE_WIDTH = 60;
+    public static final int TILE_HEIGHT = 80;
+    private static final int PNG_SCALE = 2;
+    private static final double DOT_RADIUS = 3.2;
+
+    /** Pitch styles offered by the frontend, with the top and bottom of their gradient. */
+    private enum PitchStyle {
+        GRASS("#1a8b3c", "#127828"),
+        DARK("#0d4a1c", "#071f0d"),
+        LIGHT("#2d8b4e", "#1e7b1e"),
+        MINIMAL("#1a3a2a", "#0f231a");
+
+        private final String top;
+        private final String bottom;
+
+        PitchStyle(String top, String bottom) {
+            this.top = top;
+            this.bottom = bottom;
+        }
+
+        String id() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public record Tile(String formationId, String name, String category,
+                       boolean flipH, boolean flipV, String pitchStyle, int x, int y) {}
+
+    /** Sheet layout and its SVG. {@code hash} changes whenever any tile would render differently. */
+    public record SpriteSheet(String hash, int width, int height, int tileWidth, int tileHeight,
+                              List<String> pitchStyles, List<Tile> tiles, String svg) {}
+
+    private final SpriteSheet sheet;
+    private final byte[] png;
+
+    public FormationSprites(FormationService formationService) {
+        List<Formation> formations = formationService.getAllFormations();
+        List<Variant> variants = new ArrayList<>();
+        for (Formation formation : formations) {
+            for (int flip = 0; flip < 4; flip++) {
+                boolean flipH = (flip & 1) != 0;
+                boolean flipV = (flip & 2) != 0;
+                variants.add(new Variant(formation, flipH, flipV,
+                    formationService.getFormation(formation.id(), flipH, flipV).orElseThrow()));
+            }
+        }
+
+        PitchStyle[] styles = PitchStyle.values();
+        int columns = 4 * styles.length;
+        int width = columns * TILE_WIDTH;
+        int height = formations.size() * TILE_HEIGHT;
+        List<Placed> placed = new ArrayList<>(variants.size() * styles.length);
+        for (int i = 0; i < variants.size(); i++) {
+            Variant variant = variants.get(i);
+            int row = i / 4;
+            for (int s = 0; s < styles.length; s++) {
+                int column = s * 4 + i % 4;
+                placed.add(new Placed(variant, styles[s], new Tile(variant.base().id(), variant.base().name(),
+                    variant.base().category(), variant.flipH(), variant.flipV(), styles[s].id(),
+                    column * TILE_WIDTH, row * TILE_HEIGHT)));
+            }
+        }
+
+        String svg = svg(width, height, variants, placed);
+        List<String> styleIds = new ArrayList<>();
+        for (PitchStyle style : styles) styleIds.add(style.id());
+        this.sheet = new SpriteSheet(hash(svg), width, height, TILE_WIDTH, TILE_HEIGHT,
+            List.copyOf(styleIds), placed.stream().map(Placed::tile).toList(), svg);
+        this.png = png(width, height, placed);
+    }
+
+    public SpriteSheet sheet() {
+        return sheet;
+    }
+
+    /** The same sheet as a PNG at {@value #PNG_SCALE}x; scale it to {@code width} x {@code height}. */
+    public byte[] png() {
+        return png;
+    }
+
+    private record Variant(Formation base, boolean flipH, boolean flipV, Formation flipped) {
+        String symbolId() {
+            return "f-" + base.id() + (flipH ? "-h" : "") + (flipV ? "-v" : "");
+        }
+    }
+
+    private record Placed(Variant variant, PitchStyle style, Tile tile) {}
+
+    private static String svg(int width, int height, List<Variant> variants, List<Placed> tiles) {
+        StringBuilder svg = new StringBuilder(16 * 1024);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"")
+            .append(" viewBox=\"0 0 ").append(width).append(' ').append(height)
+            .append("\" width=\"").append(width).append("\" height=\"").append(height).append("\"><defs>");
+        for (PitchStyle style : PitchStyle.values()) {
+            svg.append("<linearGradient id=\"g-").append(style.id()).append("\" x1=\"0\" y1=\"0\" x2=\"0\" y2=\"1\">")
+                .append("<stop offset=\"0\" stop-color=\"").append(style.top).append("\"/>")
+                .append("<stop offset=\"1\" stop-color=\"").append(style.bottom).append("\"/></linearGradient>")
+                .append("<symbol id=\"p-").append(style.id()).append("\">")
+                .append("<rect width=\"").append(TILE_WIDTH).append("\" height=\"").append(TILE_HEIGHT)
+                .append("\" fill=\"url(#g-").append(style.id()).append(")\"/><use href=\"#m\" xlink:href=\"#m\"/></symbol>");
+        }
+        svg.append("<g id=\"m\" fill=\"none\" stroke=\"rgba(255,255,255,0.45)\" stroke-width=\"1\">");
+        for (double[] line : markings()) {
+            if (line.length == 3) {
+                svg.append("<circle cx=\"").append(fmt(line[0])).append("\" cy=\"").append(fmt(line[1]))
+                    .append("\" r=\"").append(fmt(line[2])).append("\"/>");
+            } else if (line[3] == 0) {
+                svg.append("<line x1=\"").append(fmt(line[0])).append("\" y1=\"").append(fmt(line[1]))
+                    .append("\" x2=\"").append(fmt(line[0] + line[2])).append("\" y2=\"").append(fmt(line[1])).append("\"/>");
+            } else {
+                svg.append("<rect x=\"").append(fmt(line[0])).append("\" y=\"").append(fmt(line[1]))
+                    .append("\" width=\"").append(fmt(line[2])).append("\" height=\"").append(fmt(line[3])).append("\"/>");
+            }
+        }
+        svg.append("</g>");
+        for (Variant variant : variants) {
+            svg.append("<symbol id=\"").append(variant.symbolId()).append("\">");
+            for (Position position : variant.flipped().positions()) {
+                svg.append("<circle cx=\"").append(fmt(x(position))).append("\" cy=\"").append(fmt(y(position)))
+                    .append("\" r=\"").append(fmt(DOT_RADIUS)).append("\" fill=\"")
+                    .append("GK".equals(position.label()) ? "#facc15" : "#ffffff").append("\"/>");
+            }
+            svg.append("</symbol>");
+        }
+        svg.append("</defs>");
+        for (Placed placed : tiles) {
+            Tile tile = placed.tile();
+            Variant variant = placed.variant();
+            String pitch = "#p-" + tile.pitchStyle();
+            String dots = "#" + variant.symbolId();
+            svg.append("<use href=\"").append(pitch).append("\" xlink:href=\"").append(pitch)
+                .append("\" x=\"").append(tile.x()).append("\" y=\"").append(tile.y()).append("\"/>")
+                .append("<use href=\"").append(dots).append("\" xlink:href=\"").append(dots)
+                .append("\" x=\"").append(tile.x()).append("\" y=\"").append(tile.y()).append("\"/>");
+        }
+        return svg.append("</svg>").toString();
+    }
+
+    private static byte[] png(int width, int height, List<Placed> tiles) {
+        BufferedImage image = new BufferedImage(width * PNG_SCALE, height * PNG_SCALE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.scale(PNG_SCALE, PNG_SCALE);
+            for (Placed placed : tiles) {
+                Tile tile = placed.tile();
+                PitchStyle style = placed.style();
+                Graphics2D t = (Graphics2D) g.create();
+                try {
+                    t.translate(tile.x(), tile.y());
+                    t.setPaint(new GradientPaint(0, 0, Color.decode(style.top), 0, TILE_HEIGHT, Color.decode(style.bottom)));
+                    t.fill(new Rectangle2D.Double(0, 0, TILE_WIDTH, TILE_HEIGHT));
+                    t.setColor(new Color(255, 255, 255, 115));
+                    t.setStroke(new BasicStroke(1f));
+                    for (double[] shape : markings()) {
+                        if (shape.length == 3) {
+                            t.draw(new Ellipse2D.Double(shape[0] - shape[2], shape[1] - shape[2], shape[2] * 2, shape[2] * 2));
+                        } else if (shape[3] == 0) {
+                            t.draw(new Line2D.Double(shape[0], shape[1], shape[0] + shape[2], shape[1]));
+                        } else {
+                            t.draw(new Rectangle2D.Double(shape[0], shape[1], shape[2], shape[3]));
+                        }
+                    }
+                    for (Position position : placed.variant().flipped().positions()) {
+                        t.setColor("GK".equals(position.label()) ? new Color(0xfacc15) : Color.WHITE);
+                        t.fill(new Ellipse2D.Double(x(position) - DOT_RADIUS, y(position) - DOT_RADIUS,
+                            DOT_RADIUS * 2, DOT_RADIUS * 2));
+                    }
+                } finally {
+                    t.dispose();
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** Pitch outline, halfway line, centre circle and penalty areas: {x, y, w, h} rectangles or {cx, cy, r} circles. */
+    private static double[][] markings() {
+        double inset = 3;
+        double boxWidth = 26;
+        double boxHeight = 11;
+        return new double[][] {
+            { inset, inset, TILE_WIDTH - 2 * inset, TILE_HEIGHT - 2 * inset },
+            { inset, TILE_HEIGHT / 2.0, TILE_WIDTH - 2 * inset, 0 },
+            { TILE_WIDTH / 2.0, TILE_HEIGHT / 2.0, 7 },
+            { (TILE_WIDTH - boxWidth) / 2, inset, boxWidth, boxHeight },
+            { (TILE_WIDTH - boxWidth) / 2, TILE_HEIGHT - inset - boxHeight, boxWidth, boxHeight }
+        };
+    }
+
+    // Position coordinates are percentages of the pitch, inset like the markings
+    private static double x(Position position) {
+        return 3 + position.x() * (TILE_WIDTH - 6) / 100;
+    }
+
+    private static double y(Position position) {
+        return 3 + position.y() * (TILE_HEIGHT - 6) / 100;
+    }
+
+    private static String fmt(double value) {
+        long rounded = Math.round(value * 10);
+        return rounded % 10 == 0 ? Long.toString(rounded / 10) : Double.toString(rounded / 10.0);
+    }
+
+    private static String hash(String svg) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(svg.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
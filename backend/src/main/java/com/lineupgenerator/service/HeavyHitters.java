@@ -0,0 +1,118 @@
+package com.lineupgenerator.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate most-frequent keys: a count-min sketch for the counts plus a
+ * small candidate set of keys whose estimate made the current top. Each row
+ * of the sketch hashes the key with its own randomly seeded hash, so keys that
+ * collide in one row (or share a {@code hashCode}) are independent in the
+ * others. Writers only do atomic increments and a set add; once the candidate
+ * set is over capacity, a trim is handed to {@code trimExecutor}, and while
+ * one is pending writers stop adding new candidates past a hard bound.
+ *
+ * <p>Estimates never undercount and overcount by at most a small fraction of
+ * the total. {@link #decay()} halves every counter so the ranking follows
+ * recent traffic.
+ */
+final class HeavyHitters {
+
+    record Entry(String key, long estimate) {}
+
+    private static final int DEPTH = 4;
+
+    private final int width;
+    private final AtomicLongArray counts;
+    private final int[] seeds = ThreadLocalRandom.current().ints(DEPTH).toArray();
+    private final int capacity;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final Executor trimExecutor;
+
+    HeavyHitters(int width, int capacity, Executor trimExecutor) {
+        this.width = width;
+        this.counts = new AtomicLongArray(width * DEPTH);
+        this.capacity = capacity;
+        this.trimExecutor = trimExecutor;
+    }
+
+    void add(String key) {
+        for (int row = 0; row < DEPTH; row++) {
+            counts.incrementAndGet(row * width + index(key, row));
+        }
+        int size = candidates.size();
+        // The sketch still counts the key; it becomes a candidate again on a later hit
+        if (size < capacity * 4) candidates.add(key);
+        if (size > capacity * 2 && trimming.compareAndSet(false, true)) {
+            try {
+                trimExecutor.execute(() -> {
+                    try {
+                        trim();
+                    } finally {
+                        trimming.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                trimming.set(false);
+            }
+        }
+    }
+
+    List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>();
+        candidates.forEach(key -> entries.add(new Entry(key, estimate(key))));
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed().thenComparing(Entry::key));
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    void decay() {
+        for (int i = 0; i < counts.length(); i++) {
+            long current;
+            do {
+                current = counts.get(i);
+            } while (!counts.compareAndSet(i, current, current >> 1));
+        }
+        candidates.removeIf(key -> estimate(key) == 0);
+    }
+
+    private long estimate(String key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counts.get(row * width + index(key, row)));
+        }
+        return estimate;
+    }
+
+    private void trim() {
+        List<Entry> ranked = top(Integer.MAX_VALUE);
+        for (int i = capacity; i < ranked.size(); i++) {
+            candidates.remove(ranked.get(i).key());
+        }
+    }
+
+    // MurmurHash3 (x86, 32-bit) over the key's chars with the row's seed
+    private int index(String key, int row) {
+        int h = seeds[row];
+        for (int i = 0; i < key.length(); i++) {
+            int k = key.charAt(i) * 0xCC9E2D51;
+            k = Integer.rotateLeft(k, 15) * 0x1B873593;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13) * 5 + 0xE6546B64;
+        }
+        h ^= key.length();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, width);
+    }
+}
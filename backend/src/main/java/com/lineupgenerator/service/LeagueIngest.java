@@ -0,0 +1,275 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.model.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Replaces one league from an uploaded scraper document ({@code league},
+ * {@code slug}, {@code playerCount}, {@code players[]}), gzipped or plain.
+ *
+ * <p>The upload is parsed as a stream, one player object at a time, so memory
+ * is bounded by the league's own records rather than the request body; the
+ * decompressed size and the player count are capped as well. Every record is
+ * validated and duplicates (by id, profile URL, or name and club) reject the
+ * whole upload. Only then is the league swapped in with
+ * {@link PlayerService#replaceLeague}; readers keep the previous dataset until
+ * the single reference swap.
+ */
+@Service
+public class LeagueIngest {
+
+    private static final Logger log = LoggerFactory.getLogger(LeagueIngest.class);
+    private static final int MAX_ERRORS = 20;
+
+    public enum Outcome { APPLIED, INVALID, CONFLICT, TOO_LARGE, NOT_READY }
+
+    /** {@code errors} is empty for an applied upload unless it could not be shared with other replicas. */
+    public record Result(Outcome outcome, String league, String slug, int players, long version,
+                         long elapsedMs, List<String> errors) {}
+
+    private final PlayerService playerService;
+    private final DatasetReplication replication;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION, false);
+    private final long maxBytes;
+    private final int maxPlayers;
+
+    public LeagueIngest(PlayerService playerService,
+                        DatasetReplication replication,
+                        @Value("${app.ingest.max-bytes:67108864}") long maxBytes,
+                        @Value("${app.ingest.max-players:20000}") int maxPlayers) {
+        this.playerService = playerService;
+        this.replication = replication;
+        this.maxBytes = maxBytes;
+        this.maxPlayers = maxPlayers;
+    }
+
+    private static final class TooLarge extends IOException {
+        TooLarge(String message) {
+            super(message);
+        }
+    }
+
+    private record Document(String league, String slug, Integer playerCount, List<PlayerIdentity.SourceRecord> records) {}
+
+    public Result ingest(String slug, InputStream body) throws IOException {
+        long started = System.nanoTime();
+        // A league replaced before the startup load finishes would be overwritten by it
+        if (!playerService.loaded().isDone()) {
+            return rejected(Outcome.NOT_READY, slug, started, List.of("Player data is still loading"));
+        }
+
+        List<String> errors = new ArrayList<>();
+        Document document;
+        try {
+            document = parse(decode(body), errors);
+        } catch (TooLarge e) {
+            return rejected(Outcome.TOO_LARGE, slug, started, List.of(e.getMessage()));
+        } catch (JsonProcessingException e) {
+            return rejected(Outcome.INVALID, slug, started, List.of("Malformed JSON: " + e.getOriginalMessage()));
+        } catch (ZipException | EOFException e) {
+            return rejected(Outcome.INVALID, slug, started, List.of("Truncated or corrupt gzip body"));
+        }
+        validate(slug, document, errors);
+        if (!errors.isEmpty()) {
+            return rejected(Outcome.INVALID, slug, started, errors);
+        }
+
+        PlayerIdentity.Resolved players = PlayerIdentity.resolve(document.records());
+        PlayerDataset dataset;
+        List<String> warnings = new ArrayList<>();
+        try {
+            dataset = replication.publish(() -> playerService.replaceLeague(slug, players));
+        } catch (IllegalArgumentException e) {
+            return rejected(Outcome.CONFLICT, slug, started, List.of(e.getMessage()));
+        } catch (IOException e) {
+            log.warn("League {} applied locally but not shared with other replicas", slug, e);
+            warnings.add("Applied here but not shared with other replicas: " + e.getMessage());
+            dataset = playerService.dataset();
+        }
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        log.info("Replaced league {} with {} uploaded players in {} ms (dataset version {})",
+            document.league(), players.players().size(), elapsed, dataset.version());
+        return new Result(Outcome.APPLIED, document.league(), slug, players.players().size(), dataset.version(), elapsed,
+            List.copyOf(warnings));
+    }
+
+    private InputStream decode(InputStream body) throws IOException {
+        InputStream in = new BufferedInputStream(body, 8192);
+        in.mark(2);
+        boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return new Limited(gzip ? new GZIPInputStream(in, 8192) : in, maxBytes);
+    }
+
+    private Document parse(InputStream in, List<String> errors) throws IOException {
+        String league = null;
+        String slug = null;
+        Integer playerCount = null;
+        List<PlayerIdentity.SourceRecord> records = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                errors.add("Expected a league document object");
+                return new Document(null, null, null, records);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "league" -> league = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "slug" -> slug = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "playerCount" -> playerCount = value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+                    case "players" -> readPlayers(parser, value, records, errors);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new Document(league, slug, playerCount, records);
+    }
+
+    private void readPlayers(JsonParser parser, JsonToken start, List<PlayerIdentity.SourceRecord> records,
+                             List<String> errors) throws IOException {
+        if (start != JsonToken.START_ARRAY) {
+            errors.add("players must be an array");
+            parser.skipChildren();
+            return;
+        }
+        int index = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+            if (token == null) throw new JsonParseException(parser, "Unexpected end of players");
+            if (index >= maxPlayers) throw new TooLarge("More than " + maxPlayers + " players");
+            if (token != JsonToken.START_OBJECT) {
+                error(errors, "players[" + index + "] is not an object");
+                parser.skipChildren();
+                continue;
+            }
+            JsonNode node = parser.readValueAsTree();
+            String problem = problem(node);
+            PlayerIdentity.SourceRecord record = problem == null ? PlayerService.parsePlayer(node) : null;
+            if (record == null) {
+                error(errors, "players[" + index + "]: " + (problem != null ? problem : "unreadable record"));
+            } else {
+                records.add(record);
+            }
+        }
+    }
+
+    private static String problem(JsonNode node) {
+        JsonNode name = node.get("name");
+        if (name == null || !name.isTextual() || name.asText().isBlank()) return "name is required";
+        JsonNode id = node.get("id");
+        if (id != null && !id.isNull() && (!id.isTextual() || id.asText().isBlank())) return "id must be a non-empty string";
+        JsonNode primary = node.get("primaryPosition");
+        if (primary == null || !primary.isTextual()) return "primaryPosition is required";
+        if (PositionIndex.canonicalize(primary.asText()) == null) return "unknown primaryPosition " + primary.asText();
+        JsonNode secondary = node.get("secondaryPositions");
+        if (secondary != null && !secondary.isNull() && !secondary.isArray()) return "secondaryPositions must be an array";
+        JsonNode number = node.get("number");
+        if (number != null && !number.isNull() && (!number.canConvertToInt() || number.asInt() < 0 || number.asInt() > 999)) {
+            return "number must be between 0 and 999";
+        }
+        return null;
+    }
+
+    private static void validate(String slug, Document document, List<String> errors) {
+        if (document.league() == null || document.league().isBlank()) {
+            error(errors, "league is required");
+            return;
+        }
+        // The league is replaced by slug later on, so the name must keep resolving to it
+        if (!slug.equals(SquadIndex.slug(document.league()))) {
+            error(errors, "League " + document.league() + " does not have slug " + slug);
+        }
+        if (document.slug() != null && !slug.equals(document.slug())) {
+            error(errors, "Document is for league " + document.slug() + ", not " + slug);
+        }
+        if (document.playerCount() != null && document.playerCount() != document.records().size()) {
+            error(errors, "playerCount is " + document.playerCount() + " but " + document.records().size()
+                + " valid players were read");
+        }
+
+        Map<String, Integer> seen = new HashMap<>();
+        List<PlayerIdentity.SourceRecord> records = document.records();
+        for (int i = 0; i < records.size(); i++) {
+            PlayerIdentity.SourceRecord record = records.get(i);
+            Player player = record.player();
+            if (player.league() != null && !player.league().equalsIgnoreCase(document.league())) {
+                error(errors, "Player " + player.name() + " is in league " + player.league() + ", not " + document.league());
+            }
+            List<String> keys = new ArrayList<>(3);
+            if (record.id() != null) keys.add("id " + record.id());
+            if (record.sourceUrl() != null) keys.add("profile " + record.sourceUrl());
+            keys.add("name and club " + player.name() + " / " + player.club());
+            for (String key : keys) {
+                Integer first = seen.putIfAbsent(key.toLowerCase(Locale.ROOT), i);
+                if (first != null) error(errors, "Duplicate " + key + " (players " + first + " and " + i + ")");
+            }
+        }
+        // Records without a league belong to the uploaded one
+        if (errors.isEmpty()) {
+            records.replaceAll(record -> record.player().league() != null ? record : withLeague(record, document.league()));
+        }
+    }
+
+    private static PlayerIdentity.SourceRecord withLeague(PlayerIdentity.SourceRecord record, String league) {
+        Player p = record.player();
+        return new PlayerIdentity.SourceRecord(record.id(), new Player(record.id(), p.name(), p.displayName(),
+            p.positions(), p.club(), p.nationality(), league, p.photoUrl(), p.number()), record.sourceUrl());
+    }
+
+    private static void error(List<String> errors, String error) {
+        if (errors.size() < MAX_ERRORS) errors.add(error);
+    }
+
+    private static Result rejected(Outcome outcome, String slug, long started, List<String> errors) {
+        return new Result(outcome, null, slug, 0, 0, (System.nanoTime() - started) / 1_000_000, List.copyOf(errors));
+    }
+
+    /** Fails once more than {@code limit} (decompressed) bytes have been read. */
+    private static final class Limited extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        Limited(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(long n) throws TooLarge {
+            count += n;
+            if (count > limit) throw new TooLarge("Upload exceeds " + limit + " bytes");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.lineupgenerator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partition of a {@link PlayerTable} into one shard per league (one per bundled
+ * data file). A league-filtered search scans only the shards whose league name
+ * matches the filter; an unfiltered one can scan the shards independently and
+ * merge the results.
+ */
+public final class LeagueShards {
+
+    /** Ordinals of one league's players, ascending. {@code league} is null for players without one. */
+    public record Shard(String league, String foldedLeague, int[] ordinals) {}
+
+    private final List<Shard> shards;
+
+    private LeagueShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public static LeagueShards build(PlayerTable table) {
+        PlayerTable.Dictionary leagues = table.leagues();
+        int[] counts = new int[leagues.size() + 1];
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            counts[slot(table, ordinal)]++;
+        }
+
+        int[][] ordinals = new int[counts.length][];
+        for (int slot = 0; slot < counts.length; slot++) {
+            ordinals[slot] = new int[counts[slot]];
+        }
+        int[] filled = new int[counts.length];
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            int slot = slot(table, ordinal);
+            ordinals[slot][filled[slot]++] = ordinal;
+        }
+
+        List<Shard> shards = new ArrayList<>();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] == 0) continue;
+            String league = slot == 0 ? null : leagues.value(slot - 1);
+            shards.add(new Shard(league, TextFolding.fold(league), ordinals[slot]));
+        }
+        return new LeagueShards(List.copyOf(shards));
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    /** Shards whose league contains {@code league} after folding; all shards when it is blank. */
+    public List<Shard> matching(String league) {
+        if (league == null || league.isBlank()) return shards;
+        String folded = TextFolding.fold(league);
+        List<Shard> result = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (shard.league() != null && shard.foldedLeague().contains(folded)) result.add(shard);
+        }
+        return result;
+    }
+
+    // Slot 0 holds players without a league, slot n + 1 league dictionary id n
+    private static int slot(PlayerTable table, int ordinal) {
+        return table.leagueId(ordinal) + 1;
+    }
+}
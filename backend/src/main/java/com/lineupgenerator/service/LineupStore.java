@@ -0,0 +1,497 @@
+package com.lineupgenerator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, checksummed segment file for shared lineups.
+ *
+ * <p>Record layout: {@code magic:int type:byte idLength:short payloadLength:int crc32:int id payload}.
+ * Ids are derived from the payload hash, so storing an identical lineup twice
+ * returns the existing id without touching the disk. All writes and compaction
+ * run on a single writer thread that batches pending appends and issues one
+ * fsync per batch; reads are a single positioned read against the in-memory
+ * id→location index.
+ *
+ * <p>With {@code app.lineups.retention-days} set, lineups nobody has read for
+ * that long are expired: a delete record is appended for each and compaction
+ * rewrites the segment once enough of it is dead. Read times are kept in
+ * memory only, so after a restart every lineup counts as read at startup.
+ */
+@Component
+public class LineupStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LineupStore.class);
+
+    private static final int MAGIC = 0x4C4E5550;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final int HEADER_SIZE = 4 + 1 + 2 + 4 + 4;
+    private static final int MIN_ID_LENGTH = 8;
+    private static final int MAX_BATCH = 256;
+    private static final String SEGMENT_NAME = "lineups.log";
+    private static final char[] BASE62 =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final BigInteger RADIX = BigInteger.valueOf(62);
+
+    private record Location(long offset, int length) {}
+
+    /** A lineup to append, or with a null payload an expiry of lineups not read since {@code cutoff}. */
+    private record PendingWrite(byte[] payload, long cutoff, CompletableFuture<String> result) {}
+
+    // Queued by close() behind any pending writes; the writer stops once it has processed them
+    private static final PendingWrite CLOSE = new PendingWrite(null, 0, new CompletableFuture<>());
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastRead = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final ReadWriteLock channelLock = new ReentrantReadWriteLock();
+
+    @Value("${app.lineups.dir:./data/lineups}")
+    private String storeDir;
+
+    @Value("${app.lineups.max-payload-bytes:65536}")
+    private int maxPayloadBytes;
+
+    @Value("${app.lineups.compaction-threshold:0.3}")
+    private double compactionThreshold;
+
+    @Value("${app.lineups.retention-days:0}")
+    private int retentionDays;
+
+    private Path segmentPath;
+    private FileChannel channel;
+    private long writePosition;
+    private long deadBytes;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path dir = Paths.get(storeDir).toAbsolutePath();
+        Files.createDirectories(dir);
+        segmentPath = dir.resolve(SEGMENT_NAME);
+        channel = openSegment(segmentPath);
+        recover();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "lineup-store-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Lineup store opened at {} with {} lineups", segmentPath, index.size());
+    }
+
+    /**
+     * Lets the writer finish everything queued so far and then closes the
+     * segment. The writer is never interrupted: an interrupt during a write or
+     * fsync would close the channel underneath it.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        running = false;
+        if (writer != null) {
+            queue.add(CLOSE);
+            try {
+                writer.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                log.warn("Lineup store writer did not finish within 10s; leaving {} open", segmentPath);
+                return;
+            }
+        }
+        failPending();
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * Stores a serialized lineup and returns its share id. Completes once the
+     * record is durable on disk, or immediately if identical content exists.
+     */
+    public CompletableFuture<String> save(byte[] payload) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Lineup store is closed"));
+        }
+        if (payload.length == 0 || payload.length > maxPayloadBytes) {
+            return CompletableFuture.failedFuture(
+                new IllegalArgumentException("Lineup payload must be 1-" + maxPayloadBytes + " bytes"));
+        }
+        String existing = findExisting(payload);
+        if (existing != null) {
+            lastRead.put(existing, System.currentTimeMillis());
+            return CompletableFuture.completedFuture(existing);
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        queue.add(new PendingWrite(payload, 0, result));
+        return result;
+    }
+
+    public Optional<byte[]> get(String id) {
+        Location location = index.get(id);
+        while (location != null) {
+            byte[] payload = readPayload(id, location);
+            if (payload != null) {
+                lastRead.put(id, System.currentTimeMillis());
+                return Optional.of(payload);
+            }
+            // Compaction may have moved the record between the lookup and the read
+            Location current = index.get(id);
+            if (location.equals(current)) break;
+            location = current;
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.lineups.compaction-interval-ms:3600000}", initialDelayString = "${app.lineups.compaction-interval-ms:3600000}")
+    public void scheduleCompaction() {
+        if (retentionDays > 0) {
+            expire(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        }
+    }
+
+    /**
+     * Completes once the writer has deleted every lineup not read since
+     * {@code cutoff} (epoch millis) and compacted the segment if enough of it
+     * is dead.
+     */
+    CompletableFuture<String> expire(long cutoff) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        queue.add(new PendingWrite(null, cutoff, result));
+        return result;
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                closing = batch.removeIf(w -> w == CLOSE);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Lineup store write batch failed", e);
+                batch.forEach(w -> w.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        failPending();
+    }
+
+    private void failPending() {
+        PendingWrite leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result().completeExceptionally(new IllegalStateException("Lineup store is closed"));
+        }
+    }
+
+    private void processBatch(List<PendingWrite> batch) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>(batch.size());
+        Map<PendingWrite, String> assigned = new IdentityHashMap<>();
+        Map<String, Location> appended = new HashMap<>();
+        long cutoff = Long.MIN_VALUE;
+        long position = writePosition;
+
+        for (PendingWrite write : batch) {
+            if (write.payload() == null) {
+                cutoff = Math.max(cutoff, write.cutoff());
+                continue;
+            }
+            String id = assignId(write.payload(), appended);
+            if (index.containsKey(id) || appended.get(id) != null) {
+                lastRead.computeIfPresent(id, (key, time) -> System.currentTimeMillis());
+                assigned.put(write, id);
+                continue;
+            }
+            ByteBuffer record = encode(TYPE_PUT, id, write.payload());
+            appended.put(id, new Location(position, record.remaining()));
+            buffers.add(record);
+            position += record.remaining();
+            assigned.put(write, id);
+        }
+
+        if (!buffers.isEmpty()) {
+            append(buffers, position);
+            long now = System.currentTimeMillis();
+            appended.forEach((id, location) -> {
+                index.put(id, location);
+                lastRead.put(id, now);
+            });
+        }
+
+        for (PendingWrite write : batch) {
+            if (write.payload() != null) {
+                write.result().complete(assigned.get(write));
+            }
+        }
+
+        if (cutoff != Long.MIN_VALUE) {
+            expireUnreadSince(cutoff);
+            compactIfNeeded();
+            batch.stream().filter(w -> w.payload() == null).forEach(w -> w.result().complete(null));
+        }
+    }
+
+    private void append(List<ByteBuffer> buffers, long end) throws IOException {
+        ByteBuffer[] array = buffers.toArray(ByteBuffer[]::new);
+        long written = 0;
+        long expected = end - writePosition;
+        channel.position(writePosition);
+        while (written < expected) {
+            written += channel.write(array);
+        }
+        channel.force(false);
+        writePosition = end;
+    }
+
+    private void expireUnreadSince(long cutoff) throws IOException {
+        List<String> expired = new ArrayList<>();
+        List<ByteBuffer> buffers = new ArrayList<>();
+        long position = writePosition;
+        for (Map.Entry<String, Long> entry : lastRead.entrySet()) {
+            if (entry.getValue() >= cutoff) continue;
+            ByteBuffer record = encode(TYPE_DELETE, entry.getKey(), new byte[0]);
+            expired.add(entry.getKey());
+            buffers.add(record);
+            position += record.remaining();
+        }
+        if (expired.isEmpty()) return;
+        append(buffers, position);
+        for (String id : expired) {
+            Location previous = index.remove(id);
+            lastRead.remove(id);
+            if (previous != null) deadBytes += previous.length();
+            deadBytes += HEADER_SIZE + id.length();
+        }
+        log.info("Expired {} lineups not read in the last {} days", expired.size(), retentionDays);
+    }
+
+    /**
+     * Content-derived id. A hash prefix that already names different content is
+     * extended two characters at a time until it is unique, so earlier ids never
+     * change meaning.
+     */
+    private String assignId(byte[] payload, Map<String, Location> appended) {
+        String full = hash(payload);
+        for (int length = MIN_ID_LENGTH; length <= full.length(); length += 2) {
+            String candidate = full.substring(0, length);
+            Location location = index.get(candidate);
+            if (location == null) location = appended.get(candidate);
+            if (location == null) return candidate;
+            byte[] existing = readPayload(candidate, location);
+            if (existing != null && Arrays.equals(existing, payload)) return candidate;
+        }
+        throw new IllegalStateException("Unable to assign a unique lineup id");
+    }
+
+    private String findExisting(byte[] payload) {
+        String full = hash(payload);
+        for (int length = MIN_ID_LENGTH; length <= full.length(); length += 2) {
+            String candidate = full.substring(0, length);
+            Location location = index.get(candidate);
+            if (location == null) return null;
+            byte[] existing = readPayload(candidate, location);
+            if (existing != null && Arrays.equals(existing, payload)) return candidate;
+        }
+        return null;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (writePosition == 0 || (double) deadBytes / writePosition < compactionThreshold) {
+            return;
+        }
+        long started = System.nanoTime();
+        Path compacted = segmentPath.resolveSibling(SEGMENT_NAME + ".compact");
+        Map<String, Location> rebuilt = new HashMap<>();
+        long position = 0;
+
+        try (FileChannel out = FileChannel.open(compacted,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                byte[] payload = readPayload(entry.getKey(), entry.getValue());
+                if (payload == null) continue;
+                ByteBuffer record = encode(TYPE_PUT, entry.getKey(), payload);
+                int length = record.remaining();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                rebuilt.put(entry.getKey(), new Location(position, length));
+                position += length;
+            }
+            out.force(true);
+        }
+
+        channelLock.writeLock().lock();
+        try {
+            channel.close();
+            Files.move(compacted, segmentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = openSegment(segmentPath);
+            index.putAll(rebuilt);
+            index.keySet().retainAll(rebuilt.keySet());
+            long reclaimed = writePosition - position;
+            writePosition = position;
+            deadBytes = 0;
+            log.info("Compacted lineup store: {} lineups, reclaimed {} bytes in {} ms",
+                rebuilt.size(), reclaimed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+    }
+
+    private byte[] readPayload(String id, Location location) {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        channelLock.readLock().lock();
+        try {
+            long position = location.offset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) return null;
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channelLock.readLock().unlock();
+        }
+        buffer.flip();
+        Decoded decoded = decode(buffer);
+        if (decoded == null || !decoded.id().equals(id)) {
+            return null;
+        }
+        return decoded.payload();
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            if (header.getInt(0) != MAGIC) break;
+            int length = HEADER_SIZE + header.getShort(5) + header.getInt(7);
+            if (length < HEADER_SIZE || position + length > size) break;
+
+            ByteBuffer record = ByteBuffer.allocate(length);
+            channel.read(record, position);
+            record.flip();
+            Decoded decoded = decode(record);
+            if (decoded == null) break;
+
+            Location previous = decoded.type() == TYPE_DELETE
+                ? index.remove(decoded.id())
+                : index.put(decoded.id(), new Location(position, length));
+            if (previous != null) deadBytes += previous.length();
+            if (decoded.type() == TYPE_DELETE) deadBytes += length;
+            position += length;
+        }
+
+        if (position < size) {
+            log.warn("Truncating {} bytes of torn or corrupt data at offset {} in {}", size - position, position, segmentPath);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        writePosition = position;
+        long now = System.currentTimeMillis();
+        index.keySet().forEach(id -> lastRead.put(id, now));
+    }
+
+    private record Decoded(byte type, String id, byte[] payload) {}
+
+    private static Decoded decode(ByteBuffer record) {
+        if (record.remaining() < HEADER_SIZE || record.getInt(0) != MAGIC) return null;
+        byte type = record.get(4);
+        int idLength = record.getShort(5);
+        int payloadLength = record.getInt(7);
+        int crc = record.getInt(11);
+        if (idLength < 0 || payloadLength < 0 || record.remaining() != HEADER_SIZE + idLength + payloadLength) {
+            return null;
+        }
+        byte[] id = new byte[idLength];
+        byte[] payload = new byte[payloadLength];
+        record.get(HEADER_SIZE, id);
+        record.get(HEADER_SIZE + idLength, payload);
+        if (checksum(type, id, payload) != crc) return null;
+        return new Decoded(type, new String(id, StandardCharsets.US_ASCII), payload);
+    }
+
+    private static ByteBuffer encode(byte type, String id, byte[] payload) {
+        byte[] idBytes = id.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + idBytes.length + payload.length);
+        buffer.putInt(MAGIC)
+            .put(type)
+            .putShort((short) idBytes.length)
+            .putInt(payload.length)
+            .putInt(checksum(type, idBytes, payload))
+            .put(idBytes)
+            .put(payload)
+            .flip();
+        return buffer;
+    }
+
+    private static int checksum(byte type, byte[] id, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(id);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static String hash(byte[] payload) {
+        try {
+            // The whole digest as one number, so every base62 digit is (all but) uniform
+            BigInteger value = new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(payload));
+            StringBuilder id = new StringBuilder(16);
+            for (int i = 0; i < 16; i++) {
+                BigInteger[] divided = value.divideAndRemainder(RADIX);
+                id.append(BASE62[divided[1].intValue()]);
+                value = divided[0];
+            }
+            return id.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FileChannel openSegment(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,153 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.dto.PlayerDTO;
+import com.lineupgenerator.dto.SuggestionDTO;
+import com.lineupgenerator.dto.SuggestionsDTO;
+import com.lineupgenerator.model.Lineup;
+import com.lineupgenerator.model.LineupPlayer;
+import com.lineupgenerator.model.Position;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Replacement candidates for one slot of a lineup, ranked by how well they fit
+ * the slot and by what they share with the rest of the XI.
+ *
+ * <p>A candidate scores {@code PRIMARY} 100, {@code SECONDARY} 60 or
+ * {@code ADJACENT} 30 for fit, plus 12 per teammate from the same club, 6 per
+ * teammate of the same nationality and 3 per teammate from the same league;
+ * ties keep load order, as the eligible list does. Only players sharing
+ * something with the XI are read from the {@link AffinityIndex}; every other
+ * candidate scores fit alone, so the first few of each fit tier in the
+ * {@link PositionIndex} are all it takes to fill the rest of the top k.
+ */
+@Service
+public class LineupSuggestions {
+
+    private static final Map<PositionIndex.Fit, Integer> FIT_SCORES = Map.of(
+        PositionIndex.Fit.PRIMARY, 100,
+        PositionIndex.Fit.SECONDARY, 60,
+        PositionIndex.Fit.ADJACENT, 30
+    );
+    private static final Map<AffinityIndex.Attribute, Integer> SHARED_SCORES = Map.of(
+        AffinityIndex.Attribute.CLUB, 12,
+        AffinityIndex.Attribute.NATIONALITY, 6,
+        AffinityIndex.Attribute.LEAGUE, 3
+    );
+
+    private final PlayerService playerService;
+    private final FormationService formationService;
+
+    public LineupSuggestions(PlayerService playerService, FormationService formationService) {
+        this.playerService = playerService;
+        this.formationService = formationService;
+    }
+
+    private record Scored(int ordinal, PositionIndex.Fit fit, int score) {}
+
+    /** Empty when the formation or slot does not exist or the slot has no canonical code. */
+    public Optional<SuggestionsDTO> suggest(Lineup lineup, String slotId, int limit) {
+        Optional<Position> slot = formationService.getFormation(lineup.formationId())
+            .flatMap(formation -> formation.positions().stream().filter(p -> p.id().equals(slotId)).findFirst());
+        String code = slot.map(p -> PositionIndex.canonicalize(p.label())).orElse(null);
+        if (code == null) return Optional.empty();
+
+        PlayerDataset current = playerService.dataset();
+        PlayerTable table = current.table();
+        PositionIndex positions = current.positions();
+
+        // Everyone already on the pitch is excluded; the slot's occupant does not count towards affinity
+        BitSet seen = new BitSet();
+        Map<AffinityIndex.Attribute, Map<Integer, Integer>> teammates = new EnumMap<>(AffinityIndex.Attribute.class);
+        for (AffinityIndex.Attribute attribute : AffinityIndex.Attribute.values()) {
+            teammates.put(attribute, new HashMap<>());
+        }
+        for (LineupPlayer player : lineup.players() == null ? List.<LineupPlayer>of() : lineup.players()) {
+            int ordinal = table.find(player.playerId());
+            if (ordinal < 0) continue;
+            seen.set(ordinal);
+            if (slotId.equals(player.positionId())) continue;
+            teammates.forEach((attribute, counts) -> {
+                int id = AffinityIndex.id(table, attribute, ordinal);
+                if (id >= 0) counts.merge(id, 1, Integer::sum);
+            });
+        }
+
+        List<String> codes = new ArrayList<>();
+        codes.add(code);
+        codes.addAll(positions.adjacent(code));
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1,
+            Comparator.comparingInt(Scored::score).thenComparing(Scored::ordinal, Comparator.reverseOrder()));
+
+        teammates.forEach((attribute, counts) -> counts.keySet().forEach(id -> {
+            for (String fitCode : codes) {
+                for (int ordinal : current.affinity().players(fitCode, attribute, id)) {
+                    if (seen.get(ordinal)) continue;
+                    seen.set(ordinal);
+                    offer(top, limit, score(table, positions, teammates, ordinal, code));
+                }
+            }
+        }));
+
+        // Whoever is left shares nothing with the XI, so within a tier the first few unseen are the best
+        fill(top, limit, seen, table, positions, teammates, code, code, true);
+        fill(top, limit, seen, table, positions, teammates, code, code, false);
+        for (String adjacent : positions.adjacent(code)) {
+            fill(top, limit, seen, table, positions, teammates, code, adjacent, true);
+            fill(top, limit, seen, table, positions, teammates, code, adjacent, false);
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingInt(Scored::score).reversed().thenComparingInt(Scored::ordinal));
+        List<SuggestionDTO> items = ranked.stream()
+            .map(s -> new SuggestionDTO(PlayerDTO.from(table.player(s.ordinal())), s.fit().name(), s.score(),
+                shared(table, teammates, s.ordinal())))
+            .toList();
+        return Optional.of(new SuggestionsDTO(slotId, code, items, current.partial() ? Boolean.TRUE : null));
+    }
+
+    private static void fill(PriorityQueue<Scored> top, int limit, BitSet seen, PlayerTable table,
+                             PositionIndex positions, Map<AffinityIndex.Attribute, Map<Integer, Integer>> teammates,
+                             String slot, String fitCode, boolean primary) {
+        int taken = 0;
+        for (int ordinal = positions.nextFit(fitCode, primary, 0);
+             ordinal >= 0 && taken < limit;
+             ordinal = positions.nextFit(fitCode, primary, ordinal + 1)) {
+            if (seen.get(ordinal)) continue;
+            seen.set(ordinal);
+            offer(top, limit, score(table, positions, teammates, ordinal, slot));
+            taken++;
+        }
+    }
+
+    private static void offer(PriorityQueue<Scored> top, int limit, Scored candidate) {
+        if (candidate == null) return;
+        top.offer(candidate);
+        if (top.size() > limit) top.poll();
+    }
+
+    private static Scored score(PlayerTable table, PositionIndex positions,
+                                Map<AffinityIndex.Attribute, Map<Integer, Integer>> teammates, int ordinal, String slot) {
+        PositionIndex.Fit fit = positions.fit(ordinal, slot);
+        if (fit == null) return null;
+        int score = FIT_SCORES.get(fit);
+        for (Map.Entry<AffinityIndex.Attribute, Map<Integer, Integer>> entry : teammates.entrySet()) {
+            int id = AffinityIndex.id(table, entry.getKey(), ordinal);
+            score += SHARED_SCORES.get(entry.getKey()) * entry.getValue().getOrDefault(id, 0);
+        }
+        return new Scored(ordinal, fit, score);
+    }
+
+    private static List<String> shared(PlayerTable table, Map<AffinityIndex.Attribute, Map<Integer, Integer>> teammates,
+                                       int ordinal) {
+        List<String> shared = new ArrayList<>(3);
+        teammates.forEach((attribute, counts) -> {
+            if (counts.containsKey(AffinityIndex.id(table, attribute, ordinal))) {
+                shared.add(attribute.name().toLowerCase(Locale.ROOT));
+            }
+        });
+        return shared;
+    }
+}
@@ -0,0 +1,9 @@
+package com.lineupgenerator.service;
+
+/**
+ * How far the player data load has got. Until {@code complete}, the published
+ * dataset holds only the first {@code sourcesLoaded} data files.
+ * {@code background} is set when the server started before the load finished
+ * and serves partial data meanwhile.
+ */
+public record LoadProgress(boolean complete, int sourcesLoaded, int sourcesTotal, boolean background) {}
@@ -0,0 +1,172 @@
+package com.lineupgenerator.service;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.*;
+
+/**
+ * Secondary name keys built once per loaded table: every token of a player's
+ * name and display name, transliterated ({@link TextFolding#transliterate}),
+ * and its Double Metaphone codes. Each key type has its own inverted index
+ * from key to player ordinals.
+ *
+ * <p>Search consults it as a lower-weighted tier so that "odegaard" finds
+ * Ødegaard and "mitrovich" finds Mitrović, without adding per-player work at
+ * query time.
+ */
+public final class NameIndex {
+
+    public static final int TRANSLITERATED_SCORE = 90;
+    public static final int PHONETIC_SCORE = 40;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_PHONETIC_LENGTH = 3;
+
+    /** Players matched through the index; every query term matched one of their name tokens. */
+    public record Hits(BitSet transliterated, BitSet phonetic) {
+        public int score(int ordinal) {
+            if (transliterated.get(ordinal)) return TRANSLITERATED_SCORE;
+            if (phonetic.get(ordinal)) return PHONETIC_SCORE;
+            return 0;
+        }
+
+        public boolean isEmpty() {
+            return transliterated.isEmpty() && phonetic.isEmpty();
+        }
+
+        /** Matched ordinals, ascending. */
+        public int[] ordinals() {
+            BitSet all = (BitSet) transliterated.clone();
+            all.or(phonetic);
+            return all.stream().toArray();
+        }
+    }
+
+    private static final Hits NO_HITS = new Hits(new BitSet(), new BitSet());
+
+    // Sorted distinct tokens; postings[i] holds the ordinals using tokens[i]
+    private final String[] tokens;
+    private final int[][] postings;
+    private final Map<String, int[]> phonetic;
+
+    private NameIndex(String[] tokens, int[][] postings, Map<String, int[]> phonetic) {
+        this.tokens = tokens;
+        this.postings = postings;
+        this.phonetic = phonetic;
+    }
+
+    public static NameIndex build(PlayerTable table) {
+        DoubleMetaphone encoder = new DoubleMetaphone();
+        Map<String, List<Integer>> byToken = new HashMap<>();
+        Map<String, List<Integer>> byCode = new HashMap<>();
+        // Given and family names repeat across players; encode each distinct token once
+        Map<String, Set<String>> codesByToken = new HashMap<>();
+
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            Set<String> playerTokens = new LinkedHashSet<>();
+            playerTokens.addAll(tokenize(table.name(ordinal)));
+            playerTokens.addAll(tokenize(table.displayName(ordinal)));
+            Set<String> playerCodes = new HashSet<>();
+            for (String token : playerTokens) {
+                byToken.computeIfAbsent(token, t -> new ArrayList<>()).add(ordinal);
+                if (token.length() >= MIN_PHONETIC_LENGTH) {
+                    playerCodes.addAll(codesByToken.computeIfAbsent(token, t -> codes(encoder, t)));
+                }
+            }
+            for (String code : playerCodes) {
+                byCode.computeIfAbsent(code, c -> new ArrayList<>()).add(ordinal);
+            }
+        }
+
+        String[] tokens = byToken.keySet().toArray(String[]::new);
+        Arrays.sort(tokens);
+        int[][] postings = new int[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            postings[i] = byToken.get(tokens[i]).stream().mapToInt(Integer::intValue).toArray();
+        }
+        Map<String, int[]> phonetic = new HashMap<>();
+        byCode.forEach((code, ordinals) -> phonetic.put(code, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+        return new NameIndex(tokens, postings, phonetic);
+    }
+
+    public static NameIndex empty() {
+        return build(PlayerTable.empty());
+    }
+
+    /**
+     * Players for whom every term of {@code query} is a prefix of one of their
+     * transliterated name tokens ({@code transliterated}), or for whom every
+     * term is such a prefix or sounds like a whole token ({@code phonetic},
+     * excluding the former). Very short terms only use prefixes.
+     */
+    public Hits lookup(String query) {
+        if (query == null || query.isBlank()) return NO_HITS;
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return NO_HITS;
+
+        DoubleMetaphone encoder = new DoubleMetaphone();
+        BitSet transliterated = null;
+        BitSet any = null;
+        for (String term : terms) {
+            BitSet prefixMatches = prefixMatches(term);
+            BitSet termAny = (BitSet) prefixMatches.clone();
+            if (term.length() >= MIN_PHONETIC_LENGTH) {
+                for (String code : codes(encoder, term)) {
+                    for (int ordinal : phonetic.getOrDefault(code, new int[0])) termAny.set(ordinal);
+                }
+            }
+            if (transliterated == null) {
+                transliterated = prefixMatches;
+                any = termAny;
+            } else {
+                transliterated.and(prefixMatches);
+                any.and(termAny);
+            }
+            if (any.isEmpty()) return NO_HITS;
+        }
+        any.andNot(transliterated);
+        return new Hits(transliterated, any);
+    }
+
+    public int tokenCount() {
+        return tokens.length;
+    }
+
+    private BitSet prefixMatches(String term) {
+        BitSet matches = new BitSet();
+        if (term.length() < MIN_PREFIX_LENGTH) return matches;
+        int i = Arrays.binarySearch(tokens, term);
+        if (i < 0) i = -i - 1;
+        for (; i < tokens.length && tokens[i].startsWith(term); i++) {
+            for (int ordinal : postings[i]) matches.set(ordinal);
+        }
+        return matches;
+    }
+
+    private static Set<String> codes(DoubleMetaphone encoder, String token) {
+        Set<String> codes = new HashSet<>(2);
+        String primary = encoder.doubleMetaphone(token);
+        String alternate = encoder.doubleMetaphone(token, true);
+        if (primary != null && !primary.isEmpty()) codes.add(primary);
+        if (alternate != null && !alternate.isEmpty()) codes.add(alternate);
+        return codes;
+    }
+
+    // Transliterated tokens split on anything that is not a letter or digit ("Čaleta-Car" -> caleta, car)
+    private static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        String folded = TextFolding.transliterate(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letter = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
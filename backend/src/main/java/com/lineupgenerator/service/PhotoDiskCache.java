@@ -0,0 +1,156 @@
+package com.lineupgenerator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded directory of cached photo files, evicted least recently used
+ * first. The access order lives in memory and is rebuilt from file
+ * modification times at startup, so a restart keeps the cache but forgets
+ * recent reads. A pinned file is skipped by eviction until it is unpinned.
+ */
+final class PhotoDiskCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoDiskCache.class);
+
+    private final Path dir;
+    private final long maxBytes;
+    private final LinkedHashMap<Path, Long> files = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Path, Integer> pins = new HashMap<>();
+    // Not a monitor: callers may be virtual threads, and files are read, written and deleted outside it
+    private final ReentrantLock lock = new ReentrantLock();
+    private long totalBytes;
+
+    PhotoDiskCache(Path dir, long maxBytes) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(dir);
+        record Existing(Path path, long size, long modified) {}
+        List<Existing> existing = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) continue;
+                if (path.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                existing.add(new Existing(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        }
+        existing.sort(Comparator.comparingLong(Existing::modified));
+        for (Existing file : existing) {
+            files.put(file.path(), file.size());
+            totalBytes += file.size();
+        }
+        delete(evict());
+    }
+
+    Path resolve(String variant, String fileName) {
+        return dir.resolve(variant).resolve(fileName);
+    }
+
+    /** The cached file if present, marked as recently used. */
+    Path get(Path path) {
+        lock.lock();
+        try {
+            return files.get(path) != null ? path : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Writes {@code bytes} to {@code path} atomically and accounts for it. */
+    Path put(Path path, byte[] bytes) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        List<Path> evicted;
+        lock.lock();
+        try {
+            Long previous = files.put(path, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0);
+            evicted = evict();
+        } finally {
+            lock.unlock();
+        }
+        delete(evicted);
+        return path;
+    }
+
+    /** Keeps a cached file from being evicted; false if it is not cached. */
+    boolean pin(Path path) {
+        lock.lock();
+        try {
+            if (files.get(path) == null) return false;
+            pins.merge(path, 1, Integer::sum);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void unpin(Path path) {
+        List<Path> evicted = List.of();
+        lock.lock();
+        try {
+            if (pins.computeIfPresent(path, (p, count) -> count > 1 ? count - 1 : null) == null) evicted = evict();
+        } finally {
+            lock.unlock();
+        }
+        delete(evicted);
+    }
+
+    /** Forgets a file that is no longer on disk. */
+    void remove(Path path) {
+        lock.lock();
+        try {
+            Long size = files.remove(path);
+            if (size != null) totalBytes -= size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Never evicts the most recent entry, so a file larger than the whole budget can still be served once.
+    // Only updates the accounting; the caller deletes the returned files after releasing the lock.
+    private List<Path> evict() {
+        List<Path> evicted = new ArrayList<>();
+        Iterator<Map.Entry<Path, Long>> eldest = files.entrySet().iterator();
+        int remaining = files.size();
+        while (totalBytes > maxBytes && remaining-- > 1) {
+            Map.Entry<Path, Long> entry = eldest.next();
+            if (pins.containsKey(entry.getKey())) continue;
+            evicted.add(entry.getKey());
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    private static void delete(List<Path> evicted) {
+        for (Path path : evicted) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not evict cached photo {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.lineupgenerator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lineupgenerator.model.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Local copies of player photos. Each source image is fetched once, from the
+ * player's {@code photoUrl} or from {@code app.photos.origin-dir} when set
+ * (a stand-in directory of {@code <playerId>.jpg|png} files), and stored with
+ * its resized variants in a bounded on-disk cache. {@link Variant#SMALL}
+ * images are also kept in a memory LRU for embedding in exports.
+ *
+ * <p>Remote sources are only fetched over https from
+ * {@code app.photos.allowed-hosts}; redirects are followed by hand, at most a
+ * few hops, and every target is checked against the same list.
+ *
+ * <p>Concurrent requests for the same uncached photo share one fetch.
+ * Exports never fetch: a missing thumbnail is queued for a background fetch
+ * and the export renders without it.
+ */
+@Service
+public class PhotoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoService.class);
+    private static final String ORIGINAL = "original";
+    private static final int MAX_REDIRECTS = 3;
+
+    public enum Variant {
+        SMALL(96), MEDIUM(256), ORIGINAL(0);
+
+        private final int maxSide;
+
+        Variant(int maxSide) {
+            this.maxSide = maxSide;
+        }
+
+        public static Variant parse(String value) {
+            return Variant.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+
+        String directory() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** A cached photo file and its media type. */
+    public record Photo(Path path, String contentType, long size, long lastModified) {}
+
+    private final PlayerService playerService;
+    private final PhotoDiskCache disk;
+    private final Cache<String, byte[]> thumbnails;
+    private final Path originDir;
+    private final long maxSourceBytes;
+    private final HttpClient http;
+    private final Duration fetchTimeout;
+    private final Set<String> allowedHosts;
+    private final long sendPinMillis;
+    private final ScheduledExecutorService unpinner;
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor prefetcher;
+
+    public PhotoService(PlayerService playerService,
+                        @Value("${app.photos.cache-dir:./data/photos}") String cacheDir,
+                        @Value("${app.photos.cache-max-bytes:268435456}") long cacheMaxBytes,
+                        @Value("${app.photos.memory-max-bytes:16777216}") long memoryMaxBytes,
+                        @Value("${app.photos.origin-dir:}") String originDir,
+                        @Value("${app.photos.max-source-bytes:5242880}") long maxSourceBytes,
+                        @Value("${app.photos.fetch-timeout-ms:5000}") long fetchTimeoutMs,
+                        @Value("${app.photos.allowed-hosts:}") List<String> allowedHosts,
+                        @Value("${app.photos.send-pin-ms:30000}") long sendPinMillis) throws IOException {
+        this.playerService = playerService;
+        this.disk = new PhotoDiskCache(Paths.get(cacheDir).toAbsolutePath(), cacheMaxBytes);
+        this.thumbnails = Caffeine.newBuilder()
+            .maximumWeight(memoryMaxBytes)
+            .weigher((String key, byte[] bytes) -> bytes.length)
+            .build();
+        this.originDir = originDir.isBlank() ? null : Paths.get(originDir).toAbsolutePath();
+        this.maxSourceBytes = maxSourceBytes;
+        this.fetchTimeout = Duration.ofMillis(fetchTimeoutMs);
+        this.allowedHosts = allowedHosts.stream()
+            .map(host -> host.trim().toLowerCase(Locale.ROOT))
+            .filter(host -> !host.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        this.sendPinMillis = sendPinMillis;
+        this.http = HttpClient.newBuilder()
+            .connectTimeout(fetchTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        this.unpinner = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("photo-unpin").factory());
+        this.prefetcher = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(256),
+            runnable -> {
+                Thread thread = new Thread(runnable, "photo-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+        this.prefetcher.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+        unpinner.shutdownNow();
+    }
+
+    /** The photo variant for a player, fetching and resizing it on first use; empty if the player has none. */
+    public Optional<Photo> photo(String playerId, Variant variant) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Optional<Path> path = variantPath(playerId, variant);
+            if (path.isEmpty()) return Optional.empty();
+            Path file = path.get();
+            try {
+                return Optional.of(new Photo(file, contentType(file), Files.size(file),
+                    Files.getLastModifiedTime(file).toMillis()));
+            } catch (NoSuchFileException e) {
+                // Evicted by a concurrent write, or removed from the cache directory externally
+                disk.remove(file);
+                if (attempt > 0) throw e;
+            }
+        }
+    }
+
+    /**
+     * Keeps the photo's file from being evicted for {@code app.photos.send-pin-ms},
+     * so a file handed to sendfile by name is still there when the container
+     * opens it after the response is committed (an open file survives
+     * eviction). False if the file has been evicted already.
+     */
+    public boolean pinForSend(Photo photo) {
+        if (!disk.pin(photo.path())) return false;
+        try {
+            unpinner.schedule(() -> disk.unpin(photo.path()), sendPinMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            disk.unpin(photo.path());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The small variant's bytes if already cached in memory or on disk; never
+     * fetches. A miss queues a background fetch so later exports have it.
+     */
+    public Optional<byte[]> cachedThumbnail(String playerId) {
+        // Files and thumbnails are stored under the canonical id, so resolve aliases first
+        Optional<String> canonical = playerService.canonicalId(playerId);
+        if (canonical.isEmpty()) return Optional.empty();
+        String id = canonical.get();
+        byte[] bytes = thumbnails.getIfPresent(id);
+        if (bytes != null) return Optional.of(bytes);
+        Path cached = disk.get(disk.resolve(Variant.SMALL.directory(), fileName(id, ".jpg")));
+        if (cached != null) {
+            try {
+                bytes = Files.readAllBytes(cached);
+                thumbnails.put(id, bytes);
+                return Optional.of(bytes);
+            } catch (IOException e) {
+                log.debug("Could not read cached thumbnail {}", cached, e);
+                disk.remove(cached);
+            }
+        }
+        prefetcher.execute(() -> {
+            try {
+                variantPath(id, Variant.SMALL);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Photo prefetch failed for {}", id, e);
+            }
+        });
+        return Optional.empty();
+    }
+
+    private Optional<Path> variantPath(String playerId, Variant variant) throws IOException {
+        Optional<String> canonical = playerService.canonicalId(playerId);
+        if (canonical.isEmpty()) return Optional.empty();
+        String id = canonical.get();
+        if (variant != Variant.ORIGINAL) {
+            Path cached = disk.get(disk.resolve(variant.directory(), fileName(id, ".jpg")));
+            if (cached != null) return Optional.of(cached);
+        }
+        Optional<Player> player = playerService.getPlayer(id);
+        if (player.isEmpty()) return Optional.empty();
+
+        String key = id + '/' + variant;
+        CompletableFuture<Optional<Path>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) return join(existing);
+        try {
+            Optional<Path> result = load(player.get(), variant);
+            mine.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Optional<Path> load(Player player, Variant variant) throws IOException {
+        Path original = cachedOriginal(player.id());
+        byte[] source = null;
+        if (original != null && variant != Variant.ORIGINAL) {
+            try {
+                source = Files.readAllBytes(original);
+            } catch (NoSuchFileException e) {
+                disk.remove(original);
+                original = null;
+            }
+        }
+        if (original == null) {
+            source = originDir != null ? readOrigin(player.id()) : fetch(player.photoUrl());
+            if (source == null) return Optional.empty();
+            original = disk.put(disk.resolve(ORIGINAL, fileName(player.id(), sniffExtension(source))), source);
+        }
+        if (variant == Variant.ORIGINAL) return Optional.of(original);
+
+        // Resize from bytes in hand: a freshly fetched original may already have been evicted
+        byte[] resized = resize(source, variant.maxSide);
+        // Formats ImageIO cannot decode are served as-is for every size
+        if (resized == null) return Optional.of(original);
+        Path path = disk.put(disk.resolve(variant.directory(), fileName(player.id(), ".jpg")), resized);
+        if (variant == Variant.SMALL) thumbnails.put(player.id(), resized);
+        return Optional.of(path);
+    }
+
+    private Path cachedOriginal(String playerId) {
+        for (String extension : new String[] { ".jpg", ".png", ".gif", ".webp", ".img" }) {
+            Path cached = disk.get(disk.resolve(ORIGINAL, fileName(playerId, extension)));
+            if (cached != null) return cached;
+        }
+        return null;
+    }
+
+    private byte[] readOrigin(String playerId) throws IOException {
+        for (String extension : new String[] { ".jpg", ".jpeg", ".png" }) {
+            Path file = originDir.resolve(fileName(playerId, extension));
+            if (Files.isRegularFile(file) && Files.size(file) <= maxSourceBytes) return Files.readAllBytes(file);
+        }
+        return null;
+    }
+
+    private byte[] fetch(String url) throws IOException {
+        URI uri = allowed(url);
+        for (int hop = 0; uri != null && hop <= MAX_REDIRECTS; hop++) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(fetchTimeout)
+                .header("User-Agent", "lineup-generator photo cache")
+                .GET()
+                .build();
+            try {
+                HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    int status = response.statusCode();
+                    if (status == 301 || status == 302 || status == 303 || status == 307 || status == 308) {
+                        Optional<String> location = response.headers().firstValue("Location");
+                        uri = location.isEmpty() ? null : allowed(uri, location.get());
+                        continue;
+                    }
+                    if (status != 200) return null;
+                    byte[] bytes = body.readNBytes((int) maxSourceBytes + 1);
+                    return bytes.length > maxSourceBytes || bytes.length == 0 ? null : bytes;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted fetching " + uri, e);
+            }
+        }
+        return null;
+    }
+
+    private URI allowed(String url) {
+        if (url == null) return null;
+        try {
+            return allowed(null, url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** {@code location} resolved against {@code base}, or null unless it is https on an allowed host and port. */
+    private URI allowed(URI base, String location) {
+        URI uri;
+        try {
+            uri = base != null ? base.resolve(location) : URI.create(location);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        boolean ok = "https".equalsIgnoreCase(uri.getScheme())
+            && uri.getRawUserInfo() == null
+            && uri.getHost() != null
+            && allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT))
+            && (uri.getPort() == -1 || uri.getPort() == 443);
+        if (!ok) log.debug("Not fetching photo from {}", location);
+        return ok ? uri : null;
+    }
+
+    /** JPEG scaled to fit {@code maxSide}, or null if the source cannot be decoded. */
+    private static byte[] resize(byte[] source, int maxSide) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(source));
+        if (image == null) return null;
+        double scale = Math.min(1.0, (double) maxSide / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(java.awt.Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.85f);
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String sniffExtension(byte[] bytes) {
+        if (bytes.length > 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8) return ".jpg";
+        if (bytes.length > 8 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') return ".png";
+        if (bytes.length > 6 && bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F') return ".gif";
+        if (bytes.length > 12 && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') return ".webp";
+        return ".img";
+    }
+
+    private static String contentType(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".jpg")) return "image/jpeg";
+        if (name.endsWith(".png")) return "image/png";
+        if (name.endsWith(".gif")) return "image/gif";
+        if (name.endsWith(".webp")) return "image/webp";
+        return "application/octet-stream";
+    }
+
+    // Ids come from the player table, but keep file names to a safe alphabet regardless
+    private static String fileName(String playerId, String extension) {
+        return playerId.replaceAll("[^A-Za-z0-9_-]", "_") + extension;
+    }
+
+    private static Optional<Path> join(CompletableFuture<Optional<Path>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for photo", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.lineupgenerator.service;
+
+/**
+ * One published version of the player data together with every index derived
+ * from it. Swapped as a single reference so readers never combine a table with
+ * indexes built from a different load.
+ *
+ * <p>{@code partial} is set while a background load is still adding leagues.
+ */
+public record PlayerDataset(
+    long version,
+    boolean partial,
+    PlayerTable table,
+    PositionIndex positions,
+    AffinityIndex affinity,
+    SquadIndex squads,
+    LeagueShards shards,
+    NameIndex names
+) {
+    public static PlayerDataset empty() {
+        PlayerTable table = PlayerTable.empty();
+        return new PlayerDataset(0, false, table, PositionIndex.empty(), AffinityIndex.build(table),
+            SquadIndex.build(table), LeagueShards.build(table), NameIndex.build(table));
+    }
+}
@@ -0,0 +1,172 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.model.Player;
+
+import java.util.*;
+
+/**
+ * Load-time pass that merges duplicate player records and assigns stable ids.
+ *
+ * <p>Two records are the same player when they share a source id, a source
+ * profile URL, or the same lowercased name/club/league triple (for example the
+ * same player present in both {@code all-players.json} and a per-league file).
+ * Matching is transitive: every key of every record is registered and records
+ * are joined with union-find, so a record that matches two otherwise separate
+ * entries merges all three. The first record wins; later duplicates only fill
+ * in missing fields and add positions. Source ids of the other records stay
+ * resolvable as aliases of the merged player.
+ *
+ * <p>Records without a source id get {@link Player#stableId}. If that id is
+ * already taken by a different player, the source URL is appended to the hash
+ * key; if there is no URL or that also collides, {@code -2}, {@code -3}, ...
+ * is appended. Id-less records are resolved in order of their identity key and
+ * source URL, so the outcome does not depend on file or record load order.
+ */
+final class PlayerIdentity {
+
+    record SourceRecord(String id, Player player, String sourceUrl) {}
+
+    /** Merged players in first-seen order, and each alias id mapped to the id of the player it merged into. */
+    record Resolved(List<Player> players, Map<String, String> aliases) {
+
+        static Resolved of(List<Player> players) {
+            return new Resolved(players, Map.of());
+        }
+    }
+
+    private static final class Merged {
+        String id;
+        Player player;
+        String sourceUrl;
+        final Set<String> ids = new LinkedHashSet<>();
+
+        Merged(SourceRecord record) {
+            this.id = record.id();
+            this.player = record.player();
+            this.sourceUrl = record.sourceUrl();
+            if (record.id() != null) ids.add(record.id());
+        }
+    }
+
+    private PlayerIdentity() {}
+
+    static Resolved resolve(List<SourceRecord> records) {
+        int[] parent = new int[records.size()];
+        Map<String, Integer> owners = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            parent[i] = i;
+            SourceRecord record = records.get(i);
+            for (String key : matchKeys(record.id(), record.player(), record.sourceUrl())) {
+                Integer owner = owners.putIfAbsent(key, i);
+                if (owner != null) union(parent, owner, i);
+            }
+        }
+
+        // The root of each set is its first record, so groups keep first-seen order
+        Merged[] byRoot = new Merged[records.size()];
+        List<Merged> merged = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            int root = find(parent, i);
+            if (root == i) {
+                byRoot[i] = new Merged(records.get(i));
+                merged.add(byRoot[i]);
+            } else {
+                mergeInto(byRoot[root], records.get(i));
+            }
+        }
+
+        Set<String> taken = new HashSet<>();
+        List<Merged> unassigned = new ArrayList<>();
+        for (Merged m : merged) {
+            taken.addAll(m.ids);
+            if (m.id == null) unassigned.add(m);
+        }
+
+        unassigned.sort(Comparator
+            .comparing((Merged m) -> identityKey(m.player))
+            .thenComparing(m -> m.sourceUrl == null ? "" : m.sourceUrl));
+        for (Merged m : unassigned) {
+            Player p = m.player;
+            String id = Player.stableId(p.name(), p.club(), p.league());
+            if (taken.contains(id) && m.sourceUrl != null) {
+                id = Player.stableId(p.name(), p.club(), p.league() + "_" + m.sourceUrl);
+            }
+            String base = id;
+            for (int suffix = 2; taken.contains(id); suffix++) {
+                id = base + "-" + suffix;
+            }
+            taken.add(id);
+            m.id = id;
+        }
+
+        List<Player> result = new ArrayList<>(merged.size());
+        Map<String, String> aliases = new HashMap<>();
+        for (Merged m : merged) {
+            Player p = m.player;
+            result.add(m.id.equals(p.id()) ? p : new Player(
+                m.id, p.name(), p.displayName(), p.positions(), p.club(), p.nationality(), p.league(), p.photoUrl(), p.number()
+            ));
+            for (String alias : m.ids) {
+                if (!alias.equals(m.id)) aliases.put(alias, m.id);
+            }
+        }
+        return new Resolved(result, aliases);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA < rootB) parent[rootB] = rootA;
+        else if (rootB < rootA) parent[rootA] = rootB;
+    }
+
+    private static List<String> matchKeys(String id, Player player, String sourceUrl) {
+        List<String> keys = new ArrayList<>(3);
+        if (id != null) keys.add("id:" + id);
+        if (sourceUrl != null) keys.add("url:" + sourceUrl);
+        keys.add("key:" + identityKey(player));
+        return keys;
+    }
+
+    private static String identityKey(Player player) {
+        return String.join("\u0000",
+            lower(player.name()), lower(player.club()), lower(player.league()));
+    }
+
+    private static void mergeInto(Merged target, SourceRecord duplicate) {
+        Player a = target.player;
+        Player b = duplicate.player();
+
+        List<String> positions = new ArrayList<>(a.positions());
+        for (String position : b.positions()) {
+            if (!positions.contains(position)) positions.add(position);
+        }
+
+        target.player = new Player(
+            a.id(),
+            a.name(),
+            a.displayName(),
+            positions,
+            a.club() != null ? a.club() : b.club(),
+            a.nationality() != null ? a.nationality() : b.nationality(),
+            a.league() != null ? a.league() : b.league(),
+            a.photoUrl() != null ? a.photoUrl() : b.photoUrl(),
+            a.number() != null ? a.number() : b.number()
+        );
+        if (target.id == null) target.id = duplicate.id();
+        if (duplicate.id() != null) target.ids.add(duplicate.id());
+        if (target.sourceUrl == null) target.sourceUrl = duplicate.sourceUrl();
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,147 +2,277 @@ package com.lineupgenerator.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.config.PositionProperties;
 import com.lineupgenerator.dto.PlayerSearchRequest;
 import com.lineupgenerator.dto.SearchResultDTO;
 import com.lineupgenerator.dto.PlayerDTO;
+import com.lineupgenerator.dto.PlayerView;
 import com.lineupgenerator.model.Player;
+import com.lineupgenerator.service.PlayerTable.Folded;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.io.File;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.text.Normalizer;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Stream;
 
 @Service
 public class PlayerService {
     
     private static final Logger log = LoggerFactory.getLogger(PlayerService.class);
-    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
     
-    private final List<Player> players = new ArrayList<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PositionProperties positionProperties;
+    private volatile PlayerDataset dataset = PlayerDataset.empty();
+    private volatile LoadProgress progress = new LoadProgress(false, 0, 0, false);
+    private final CompletableFuture<PlayerDataset> loaded = new CompletableFuture<>();
+    
+    private final SearchSessions searchSessions;
+    private final QueryDiagnostics diagnostics;
+    private final CacheManager cacheManager;
+    private final ForkJoinPool searchPool;
+    private final int parallelThreshold;
+    private final boolean backgroundLoad;
+    private final List<String> leaguePriority;
     
     @Value("${scraper.output.dir:../scraper/output}")
     private String scraperOutputDir;
     
+    public PlayerService(PositionProperties positionProperties,
+                         SearchSessions searchSessions,
+                         QueryDiagnostics diagnostics,
+                         CacheManager cacheManager,
+                         @Value("${app.search.parallelism:0}") int parallelism,
+                         @Value("${app.search.parallel-threshold:50000}") int parallelThreshold,
+                         @Value("${app.startup.background-load:false}") boolean backgroundLoad,
+                         @Value("${app.startup.league-priority:}") List<String> leaguePriority) {
+        this.positionProperties = positionProperties;
+        this.searchSessions = searchSessions;
+        this.diagnostics = diagnostics;
+        this.cacheManager = cacheManager;
+        this.searchPool = new ForkJoinPool(parallelism > 0
+            ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        this.parallelThreshold = parallelThreshold;
+        this.backgroundLoad = backgroundLoad;
+        this.leaguePriority = leaguePriority;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        searchPool.shutdown();
+    }
+    
     @PostConstruct
     public void initializePlayers() {
+        if (backgroundLoad) {
+            Thread.ofPlatform().daemon().name("player-loader").start(this::loadInBackground);
+            return;
+        }
         log.info("Initializing players...");
+        List<Resource> sources = discoverSources();
+        progress = new LoadProgress(false, 0, sources.size(), false);
+        List<PlayerIdentity.SourceRecord> records = new ArrayList<>();
+        for (Resource source : sources) {
+            loadSource(source, records);
+        }
+        publish(buildTable(records), false);
+        progress = new LoadProgress(true, sources.size(), sources.size(), false);
+        loaded.complete(dataset);
+        PlayerTable table = dataset.table();
+        log.info("Total players loaded: {} (~{} KB in player table)", table.size(), table.estimatedBytes() / 1024);
+    }
+    
+    /**
+     * Loads sources in {@code app.startup.league-priority} order and publishes
+     * a partial dataset after each one, so the most requested leagues are
+     * searchable while the rest are still parsing. Records are always
+     * combined in file-name order, so the final dataset is the same as a
+     * synchronous load.
+     */
+    private void loadInBackground() {
+        long started = System.nanoTime();
+        List<Resource> sources = discoverSources();
+        progress = new LoadProgress(false, 0, sources.size(), true);
+        List<List<PlayerIdentity.SourceRecord>> bySource = new ArrayList<>(Collections.nCopies(sources.size(), null));
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) order.add(i);
+        order.sort(Comparator.comparingInt(i -> priority(sources.get(i))));
         
-        // Try loading from classpath resources first (for production)
-        int loadedFromClasspath = loadPlayersFromClasspath();
-        
-        // If no players loaded from classpath, try file system (for development)
-        if (loadedFromClasspath == 0) {
+        int done = 0;
+        for (int i : order) {
+            List<PlayerIdentity.SourceRecord> records = new ArrayList<>();
+            loadSource(sources.get(i), records);
+            bySource.set(i, records);
+            done++;
+            List<PlayerIdentity.SourceRecord> combined = new ArrayList<>();
+            bySource.stream().filter(Objects::nonNull).forEach(combined::addAll);
+            publish(buildTable(combined), done < sources.size());
+            progress = new LoadProgress(false, done, sources.size(), true);
+        }
+        if (sources.isEmpty()) publish(PlayerTable.empty(), false);
+        progress = new LoadProgress(true, sources.size(), sources.size(), true);
+        loaded.complete(dataset);
+        log.info("Background load finished: {} players from {} sources in {} ms",
+            dataset.table().size(), sources.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    private int priority(Resource source) {
+        String name = String.valueOf(source.getFilename()).replaceFirst("\\.json$", "");
+        int index = leaguePriority.indexOf(name);
+        return index >= 0 ? index : leaguePriority.size();
+    }
+    
+    private PlayerTable buildTable(List<PlayerIdentity.SourceRecord> records) {
+        return buildTable(resolve(records));
+    }
+    
+    private static PlayerTable buildTable(PlayerIdentity.Resolved resolved) {
+        PlayerTable.Builder builder = new PlayerTable.Builder();
+        resolved.players().forEach(builder::add);
+        resolved.aliases().forEach(builder::alias);
+        return builder.build();
+    }
+    
+    private static PlayerIdentity.Resolved resolve(List<PlayerIdentity.SourceRecord> records) {
+        PlayerIdentity.Resolved resolved = PlayerIdentity.resolve(records);
+        if (resolved.players().size() < records.size()) {
+            log.info("Merged {} duplicate player records", records.size() - resolved.players().size());
+        }
+        return resolved;
+    }
+    
+    private synchronized PlayerDataset publish(PlayerTable table, boolean partial) {
+        dataset = new PlayerDataset(
+            dataset.version() + 1,
+            partial,
+            table,
+            PositionIndex.build(table, positionProperties.adjacency()),
+            AffinityIndex.build(table),
+            SquadIndex.build(table),
+            LeagueShards.build(table),
+            NameIndex.build(table)
+        );
+        evictStalePages(dataset.version());
+        return dataset;
+    }
+    
+    // Search pages are keyed by dataset version; pages of replaced versions can never be hit again
+    private void evictStalePages(long version) {
+        Cache cache = cacheManager.getCache("players");
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> pages) {
+            pages.asMap().keySet().removeIf(key -> !(key instanceof SearchKey k) || k.version() != version);
+        }
+    }
+    
+    /** Cache key of a search page: the whole request, so only equal requests share a page. */
+    public record SearchKey(long version, PlayerSearchRequest request) {}
+    
+    public SearchKey searchKey(PlayerSearchRequest request) {
+        return new SearchKey(dataset.version(), request);
+    }
+    
+    /** The currently published dataset; callers should read it once per request. */
+    public PlayerDataset dataset() {
+        return dataset;
+    }
+    
+    public LoadProgress loadProgress() {
+        return progress;
+    }
+    
+    /** Completes with the first complete dataset once the startup load has finished. */
+    public CompletableFuture<PlayerDataset> loaded() {
+        return loaded;
+    }
+    
+    /** Classpath data files (production), else the scraper output directory (development). */
+    private List<Resource> discoverSources() {
+        List<Resource> sources = classpathSources();
+        if (sources.isEmpty()) {
             log.info("No players found in classpath, trying file system");
-            loadPlayersFromScraperOutput();
+            sources = fileSystemSources();
         }
-        
-        log.info("Total players loaded: {}", players.size());
+        return sources;
     }
     
-    private int loadPlayersFromClasspath() {
-        int initialSize = players.size();
+    private List<Resource> classpathSources() {
         try {
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
             Resource[] resources = resolver.getResources("classpath:data/*.json");
-            
+            Arrays.sort(resources, Comparator.comparing(r -> String.valueOf(r.getFilename())));
             log.info("Found {} JSON files in classpath", resources.length);
-            
-            for (Resource resource : resources) {
-                try (InputStream is = resource.getInputStream()) {
-                    loadFromInputStream(is, resource.getFilename());
-                } catch (Exception e) {
-                    log.error("Error loading players from classpath resource: {}", resource.getFilename(), e);
-                }
-            }
+            return List.of(resources);
         } catch (Exception e) {
             log.error("Error loading players from classpath", e);
+            return List.of();
         }
-        return players.size() - initialSize;
     }
     
-    private void loadPlayersFromScraperOutput() {
+    private List<Resource> fileSystemSources() {
         try {
             Path outputPath = Paths.get(scraperOutputDir).toAbsolutePath();
             if (!Files.exists(outputPath)) {
                 log.warn("Scraper output directory not found: {}", outputPath);
-                return;
+                return List.of();
             }
 
             log.info("Loading players from file system: {}", outputPath);
 
             Path combinedFile = outputPath.resolve("all-players.json");
             if (Files.exists(combinedFile)) {
-                loadFromJsonFile(combinedFile.toFile());
-                return;
+                return List.of(new FileSystemResource(combinedFile));
             }
 
             try (Stream<Path> files = Files.list(outputPath)) {
-                files.filter(p -> p.toString().endsWith(".json"))
-                     .forEach(p -> {
-                         try {
-                             loadFromJsonFile(p.toFile());
-                         } catch (Exception e) {
-                             log.error("Error loading file: {}", p, e);
-                         }
-                     });
+                return files.filter(p -> p.toString().endsWith(".json"))
+                    .sorted()
+                    .<Resource>map(FileSystemResource::new)
+                    .toList();
             }
-
         } catch (Exception e) {
             log.error("Error loading players from scraper output", e);
+            return List.of();
         }
     }
     
-    private void loadFromInputStream(InputStream is, String filename) throws IOException {
-        JsonNode root = objectMapper.readTree(is);
-        JsonNode playersNode = root.get("players");
-        
-        if (playersNode != null && playersNode.isArray()) {
-            int count = 0;
-            for (JsonNode playerNode : playersNode) {
-                Player player = parsePlayer(playerNode);
-                if (player != null) {
-                    players.add(player);
-                    count++;
-                }
-            }
-            log.info("Loaded {} players from {}", count, filename);
-        }
-    }
-    
-    private void loadFromJsonFile(File file) throws IOException {
-        JsonNode root = objectMapper.readTree(file);
-        JsonNode playersNode = root.get("players");
-        
-        if (playersNode != null && playersNode.isArray()) {
-            int count = 0;
-            for (JsonNode playerNode : playersNode) {
-                Player player = parsePlayer(playerNode);
-                if (player != null) {
-                    players.add(player);
-                    count++;
+    private void loadSource(Resource source, List<PlayerIdentity.SourceRecord> records) {
+        try (InputStream is = source.getInputStream()) {
+            JsonNode playersNode = objectMapper.readTree(is).get("players");
+            if (playersNode != null && playersNode.isArray()) {
+                int count = 0;
+                for (JsonNode playerNode : playersNode) {
+                    PlayerIdentity.SourceRecord record = parsePlayer(playerNode);
+                    if (record != null) {
+                        records.add(record);
+                        count++;
+                    }
                 }
+                log.info("Loaded {} players from {}", count, source.getFilename());
             }
-            log.info("Loaded {} players from {}", count, file.getName());
+        } catch (Exception e) {
+            log.error("Error loading players from {}", source.getFilename(), e);
         }
     }
     
-    private Player parsePlayer(JsonNode node) {
+    static PlayerIdentity.SourceRecord parsePlayer(JsonNode node) {
         try {
             String id = node.has("id") ? node.get("id").asText() : null;
             String name = node.get("name").asText();
@@ -166,179 +296,477 @@ public class PlayerService {
             Integer number = node.has("number") && !node.get("number").isNull() 
                 ? node.get("number").asInt() : null;
             
-            return new Player(id, name, shortName, positions, club, nationality, league, photoUrl, number);
+            String sourceUrl = null;
+            JsonNode source = node.get("source");
+            if (source != null && source.isObject()) {
+                for (String field : List.of("transfermarktUrl", "fbrefUrl")) {
+                    if (sourceUrl == null && source.hasNonNull(field)) {
+                        sourceUrl = source.get(field).asText();
+                    }
+                }
+            }
+            
+            Player player = new Player(id, name, shortName, positions, club, nationality, league, photoUrl, number);
+            return new PlayerIdentity.SourceRecord(id, player, sourceUrl);
             
         } catch (Exception e) {
             return null;
         }
     }
     
-    @Cacheable(value = "players", key = "#request.hashCode()")
-    public SearchResultDTO<PlayerDTO> searchPlayers(PlayerSearchRequest request) {
+    /**
+     * Results are totally ordered by relevance score (descending), then by
+     * player name and id. With a cursor the scan skips everything up to and
+     * including the cursor position instead of materializing earlier pages;
+     * {@code page} is then ignored.
+     *
+     * <p>Only the league shards matching the league filter are scanned. When
+     * several shards are scanned and the dataset is large enough, they are
+     * scanned in parallel and their top hits merged; otherwise the caller
+     * thread scans them in turn.
+     *
+     * <p>Players whose names match only through the {@link NameIndex}
+     * (transliteration or sound) are included with that tier's lower score.
+     *
+     * <p>With a {@code session} id, a query that extends one the session ran
+     * recently (same filters) scans only that query's matches, and this
+     * query's matches are remembered for the next keystroke. Results are the
+     * same with or without a session, which is why it is not part of the
+     * cache key. The key does include the dataset version, so a reload is
+     * never answered from pages of the previous data. Pages from a partially
+     * loaded dataset are flagged and not cached.
+     */
+    @Cacheable(value = "players", key = "#root.target.searchKey(#request)",
+               unless = "#result.partial()")
+    public SearchPage searchPlayers(PlayerSearchRequest request, String session) {
+        diagnostics.recordCacheMiss(request);
+        PlayerDataset current = dataset;
+        PlayerTable snapshot = current.table();
         String query = request.query();
+        boolean scored = query != null && !query.isBlank();
+        SearchFilter filter = SearchFilter.of(request, snapshot);
+        String normalizedQuery = filter.query();
+        
+        SearchCursor cursor = request.cursor() != null ? SearchCursor.decode(request.cursor()) : null;
+        int cursorRank = cursor != null ? snapshot.rankAfter(cursor.name(), cursor.id()) : 0;
+        
+        int start = cursor != null ? 0 : request.page() * request.size();
+        int limit = start + request.size();
         
-        List<Player> filtered = players.stream()
-            .filter(p -> matchesQuery(p, query))
-            .filter(p -> matchesClub(p, request.club()))
-            .filter(p -> matchesNationality(p, request.nationality()))
-            .filter(p -> matchesLeague(p, request.league()))
-            .filter(p -> matchesPosition(p, request.position()))
-            .collect(Collectors.toList());
+        NameIndex.Hits secondary = scored ? current.names().lookup(query) : null;
         
-        if (query != null && !query.isBlank()) {
-            String normalizedQuery = normalizeString(query.trim());
-            filtered.sort((a, b) -> {
-                int scoreA = calculateRelevanceScore(a, normalizedQuery);
-                int scoreB = calculateRelevanceScore(b, normalizedQuery);
-                return scoreB - scoreA;
-            });
+        boolean refine = session != null && scored;
+        int[] candidates = refine
+            ? searchSessions.candidates(session, current.version(), request, normalizedQuery) : null;
+        
+        List<ShardHits> hits;
+        if (candidates != null) {
+            // Phonetic keys are not prefix-monotone, so index hits in the filtered leagues are always rechecked
+            if (!secondary.isEmpty()) {
+                Set<String> leagues = new HashSet<>();
+                current.shards().matching(request.league()).forEach(shard -> leagues.add(shard.league()));
+                int[] extra = Arrays.stream(secondary.ordinals())
+                    .filter(ordinal -> leagues.contains(snapshot.league(ordinal)))
+                    .toArray();
+                candidates = union(candidates, extra);
+            }
+            log.debug("Refining search from {} candidates", candidates.length);
+            hits = List.of(scan(snapshot, candidates, filter, secondary, cursor, cursorRank, limit, true));
+        } else {
+            List<LeagueShards.Shard> shards = current.shards().matching(request.league());
+            if (shards.size() > 1 && snapshot.size() >= parallelThreshold) {
+                List<ForkJoinTask<ShardHits>> tasks = shards.stream()
+                    .map(shard -> searchPool.submit(() -> scan(snapshot, shard.ordinals(), filter,
+                        secondary, cursor, cursorRank, limit, refine)))
+                    .toList();
+                hits = tasks.stream().map(ForkJoinTask::join).toList();
+            } else {
+                hits = new ArrayList<>(shards.size());
+                for (LeagueShards.Shard shard : shards) {
+                    hits.add(scan(snapshot, shard.ordinals(), filter, secondary, cursor, cursorRank, limit, refine));
+                }
+            }
+        }
+        if (refine) {
+            searchSessions.record(session, current.version(), request, normalizedQuery, matchedOrdinals(hits));
         }
         
-        long total = filtered.size();
-        int start = request.page() * request.size();
-        int end = Math.min(start + request.size(), filtered.size());
+        int total = 0;
+        int count = 0;
+        int merged = 0;
+        for (ShardHits shardHits : hits) {
+            total += shardHits.total();
+            count += shardHits.count();
+            merged += shardHits.keys().length;
+        }
+        long[] keys = new long[merged];
+        int offset = 0;
+        for (ShardHits shardHits : hits) {
+            System.arraycopy(shardHits.keys(), 0, keys, offset, shardHits.keys().length);
+            offset += shardHits.keys().length;
+        }
+        Arrays.sort(keys);
         
-        List<PlayerDTO> pageItems = start < filtered.size() 
-            ? filtered.subList(start, end).stream().map(PlayerDTO::from).toList()
-            : List.of();
+        int end = Math.min(limit, count);
+        
+        int[] pageOrdinals = new int[Math.max(end - start, 0)];
+        for (int i = start; i < end; i++) {
+            pageOrdinals[i - start] = snapshot.ordinalAtRank((int) keys[i]);
+        }
+        
+        String nextCursor = null;
+        if (end < count && end > start) {
+            int last = snapshot.ordinalAtRank((int) keys[end - 1]);
+            int lastScore = Integer.MAX_VALUE - (int) (keys[end - 1] >>> 32);
+            nextCursor = new SearchCursor(lastScore, snapshot.name(last), snapshot.id(last)).encode();
+        }
         
-        return SearchResultDTO.of(pageItems, request.page(), request.size(), total);
+        return new SearchPage(snapshot, pageOrdinals, request.page(), request.size(), total, nextCursor, current.partial());
     }
     
-    private int calculateRelevanceScore(Player player, String normalizedQuery) {
-        String name = normalizeString(player.name());
-        String displayName = normalizeString(player.displayName());
-        
+    /**
+     * Matches in one scanned ordinal set: all matches, those after the cursor,
+     * the best {@code limit} sort keys of the latter (ascending), and when
+     * requested the ordinals of all matches.
+     */
+    private record ShardHits(int total, int count, long[] keys, int[] matched) {}
+    
+    private ShardHits scan(PlayerTable snapshot, int[] ordinals, SearchFilter filter, NameIndex.Hits secondary,
+                           SearchCursor cursor, int cursorRank, int limit, boolean collect) {
+        // Sort key: inverted score in the high word, (name, id) rank in the low word. Only the best
+        // `limit` keys are kept, in a max-heap, so a deep page costs O(n log limit) rather than a full sort.
+        long[] heap = new long[Math.min(limit, ordinals.length)];
+        int kept = 0;
+        int[] matched = collect ? new int[ordinals.length] : null;
+        int total = 0;
+        int count = 0;
+        for (int ordinal : ordinals) {
+            if (matches(snapshot, ordinal, filter, secondary)) {
+                if (collect) matched[total] = ordinal;
+                total++;
+                int score = filter.query() != null
+                    ? Math.max(calculateRelevanceScore(snapshot, ordinal, filter.queryBytes()), secondary.score(ordinal))
+                    : 0;
+                int rank = snapshot.nameRank(ordinal);
+                if (cursor != null && (score > cursor.score() || (score == cursor.score() && rank < cursorRank))) {
+                    continue;
+                }
+                long key = sortKey(score, rank);
+                count++;
+                if (kept < heap.length) {
+                    heap[kept] = key;
+                    siftUp(heap, kept++);
+                } else if (kept > 0 && key < heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, kept);
+                }
+            }
+        }
+        long[] keys = Arrays.copyOf(heap, kept);
+        Arrays.sort(keys);
+        return new ShardHits(total, count, keys, collect ? Arrays.copyOf(matched, total) : null);
+    }
+    
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+    
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        for (int child = 1; child < size; child = 2 * index + 1) {
+            if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+            if (heap[child] <= key) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+    
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            int next = j >= b.length || (i < a.length && a[i] <= b[j]) ? a[i] : b[j];
+            if (i < a.length && a[i] == next) i++;
+            if (j < b.length && b[j] == next) j++;
+            out[n++] = next;
+        }
+        return Arrays.copyOf(out, n);
+    }
+    
+    private static int[] matchedOrdinals(List<ShardHits> hits) {
+        if (hits.size() == 1) return hits.get(0).matched();
+        int[] all = new int[hits.stream().mapToInt(ShardHits::total).sum()];
+        int offset = 0;
+        for (ShardHits shardHits : hits) {
+            System.arraycopy(shardHits.matched(), 0, all, offset, shardHits.matched().length);
+            offset += shardHits.matched().length;
+        }
+        return all;
+    }
+    
+    private static long sortKey(int score, int rank) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | rank;
+    }
+    
+    /** Receives streamed search matches; an {@link IOException} aborts the scan. */
+    @FunctionalInterface
+    public interface MatchSink {
+        void accept(PlayerTable table, int ordinal) throws IOException;
+    }
+    
+    /**
+     * Hands every match of {@code request} to {@code sink} as the scan reaches
+     * it, in table order rather than relevance order, without collecting them.
+     * {@code page}, {@code size} and {@code cursor} are ignored. Returns the
+     * number of matches delivered.
+     */
+    public long streamMatches(PlayerSearchRequest request, MatchSink sink) throws IOException {
+        PlayerDataset current = dataset;
+        PlayerTable snapshot = current.table();
+        NameIndex.Hits secondary = current.names().lookup(request.query());
+        SearchFilter filter = SearchFilter.of(request, snapshot);
+        long delivered = 0;
+        for (LeagueShards.Shard shard : current.shards().matching(request.league())) {
+            for (int ordinal : shard.ordinals()) {
+                if (matches(snapshot, ordinal, filter, secondary)) {
+                    sink.accept(snapshot, ordinal);
+                    delivered++;
+                }
+            }
+        }
+        return delivered;
+    }
+    
+    /**
+     * The request's text filters, folded, split and UTF-8 encoded once per
+     * request. The scan then compares them against the table's folded arena
+     * and never folds, decodes or allocates per player. {@code positions} flags
+     * the position dictionary ids that match the position filter, or is null
+     * without one.
+     */
+    private record SearchFilter(String query, byte[] queryBytes, byte[][] terms, byte[] club, byte[] nationality,
+                                boolean[] positions) {
+
+        static SearchFilter of(PlayerSearchRequest request, PlayerTable table) {
+            String query = isBlank(request.query()) ? null : TextFolding.fold(request.query().trim());
+            boolean[] positions = null;
+            if (!isBlank(request.position())) {
+                String position = request.position().toLowerCase();
+                PlayerTable.Dictionary codes = table.positionCodes();
+                positions = new boolean[codes.size()];
+                for (int id = 0; id < positions.length; id++) {
+                    positions[id] = codes.value(id).toLowerCase().contains(position);
+                }
+            }
+            return new SearchFilter(
+                query,
+                query == null ? null : utf8(query),
+                query == null ? null : Arrays.stream(TextFolding.splitWords(query)).map(SearchFilter::utf8)
+                    .toArray(byte[][]::new),
+                isBlank(request.club()) ? null : utf8(TextFolding.fold(request.club())),
+                isBlank(request.nationality()) ? null : utf8(TextFolding.fold(request.nationality())),
+                positions
+            );
+        }
+
+        private static byte[] utf8(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+    
+    // League is not checked here: callers only scan shards matching the league filter
+    private boolean matches(PlayerTable snapshot, int ordinal, SearchFilter filter, NameIndex.Hits secondary) {
+        return (matchesQuery(snapshot, ordinal, filter) || (secondary != null && secondary.score(ordinal) > 0))
+            && (filter.club() == null || snapshot.foldedContains(ordinal, Folded.CLUB, filter.club()))
+            && (filter.nationality() == null || snapshot.foldedContains(ordinal, Folded.NATIONALITY, filter.nationality()))
+            && matchesPosition(snapshot, ordinal, filter.positions());
+    }
+    
+    private int calculateRelevanceScore(PlayerTable snapshot, int ordinal, byte[] normalizedQuery) {
         int score = 0;
         
-        if (name.equals(normalizedQuery) || displayName.equals(normalizedQuery)) {
+        if (snapshot.foldedEquals(ordinal, Folded.NAME, normalizedQuery)
+                || snapshot.foldedEquals(ordinal, Folded.DISPLAY_NAME, normalizedQuery)) {
             score += 1000;
         }
 
-        if (name.startsWith(normalizedQuery) || displayName.startsWith(normalizedQuery)) {
+        if (snapshot.foldedStartsWith(ordinal, Folded.NAME, normalizedQuery)
+                || snapshot.foldedStartsWith(ordinal, Folded.DISPLAY_NAME, normalizedQuery)) {
             score += 500;
         }
 
-        String[] nameParts = name.split("\\s+");
-        if (nameParts.length > 1 && nameParts[nameParts.length - 1].startsWith(normalizedQuery)) {
+        if (snapshot.foldedLastWordStartsWith(ordinal, Folded.NAME, normalizedQuery)) {
             score += 400;
         }
 
-        if (matchesStartOfWord(name, normalizedQuery)) {
+        if (snapshot.foldedStartsAnyWord(ordinal, Folded.NAME, normalizedQuery)) {
             score += 300;
         }
 
-        if (name.contains(normalizedQuery)) {
+        if (snapshot.foldedContains(ordinal, Folded.NAME, normalizedQuery)) {
             score += 100;
         }
         
         return score;
     }
     
-    private boolean matchesQuery(Player player, String query) {
-        if (query == null || query.isBlank()) return true;
-        
-        String normalizedQuery = normalizeString(query.trim());
-        String[] queryTerms = normalizedQuery.split("\\s+");
-
-        String normalizedName = normalizeString(player.name());
-        String normalizedDisplayName = player.displayName() != null ? normalizeString(player.displayName()) : "";
-        String normalizedClub = player.club() != null ? normalizeString(player.club()) : "";
-        String normalizedNationality = player.nationality() != null ? normalizeString(player.nationality()) : "";
+    private boolean matchesQuery(PlayerTable snapshot, int ordinal, SearchFilter filter) {
+        byte[] normalizedQuery = filter.queryBytes();
+        if (normalizedQuery == null) return true;
 
-        boolean allTermsMatch = Arrays.stream(queryTerms).allMatch(term ->
-            normalizedName.contains(term) ||
-            normalizedDisplayName.contains(term) ||
-            normalizedClub.contains(term) ||
-            normalizedNationality.contains(term) ||
-            matchesStartOfWord(normalizedName, term) ||
-            matchesStartOfWord(normalizedDisplayName, term)
-        );
+        boolean allTermsMatch = true;
+        for (byte[] term : filter.terms()) {
+            if (!(snapshot.foldedContains(ordinal, Folded.NAME, term) ||
+                  snapshot.foldedContains(ordinal, Folded.DISPLAY_NAME, term) ||
+                  snapshot.foldedContains(ordinal, Folded.CLUB, term) ||
+                  snapshot.foldedContains(ordinal, Folded.NATIONALITY, term) ||
+                  snapshot.foldedStartsAnyWord(ordinal, Folded.NAME, term) ||
+                  snapshot.foldedStartsAnyWord(ordinal, Folded.DISPLAY_NAME, term))) {
+                allTermsMatch = false;
+                break;
+            }
+        }
         
         if (allTermsMatch) return true;
         
-        return normalizedName.contains(normalizedQuery) ||
-               normalizedDisplayName.contains(normalizedQuery) ||
-               normalizedClub.contains(normalizedQuery) ||
-               normalizedNationality.contains(normalizedQuery);
-    }
-    private String normalizeString(String input) {
-        if (input == null) return "";
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        return DIACRITICS_PATTERN.matcher(normalized).replaceAll("").toLowerCase();
+        return snapshot.foldedContains(ordinal, Folded.NAME, normalizedQuery) ||
+               snapshot.foldedContains(ordinal, Folded.DISPLAY_NAME, normalizedQuery) ||
+               snapshot.foldedContains(ordinal, Folded.CLUB, normalizedQuery) ||
+               snapshot.foldedContains(ordinal, Folded.NATIONALITY, normalizedQuery);
     }
     
-    private boolean matchesStartOfWord(String text, String term) {
-        if (text == null || text.isEmpty() || term == null || term.isEmpty()) return false;
-        String[] words = text.split("\\s+");
-        return Arrays.stream(words).anyMatch(word -> word.startsWith(term));
-    }
-    
-    private boolean matchesClub(Player player, String club) {
-        if (club == null || club.isBlank()) return true;
-        String normalizedClub = normalizeString(club);
-        String playerClub = normalizeString(player.club());
-        return playerClub.contains(normalizedClub);
+    private boolean matchesPosition(PlayerTable snapshot, int ordinal, boolean[] positions) {
+        if (positions == null) return true;
+        for (int i = 0; i < snapshot.positionCount(ordinal); i++) {
+            int code = snapshot.positionCodeId(ordinal, i);
+            if (code >= 0 && positions[code]) return true;
+        }
+        return false;
     }
     
-    private boolean matchesNationality(Player player, String nationality) {
-        if (nationality == null || nationality.isBlank()) return true;
-        String normalizedNat = normalizeString(nationality);
-        String playerNat = normalizeString(player.nationality());
-        return playerNat.contains(normalizedNat);
+    public SearchResultDTO<PlayerDTO> getEligiblePlayers(String slot, String league, int page, int size) {
+        PlayerDataset current = dataset;
+        PlayerTable snapshot = current.table();
+        PositionIndex index = current.positions();
+        List<PositionIndex.Candidate> candidates = index.eligible(slot, league);
+        int start = page * size;
+        int end = Math.min(start + size, candidates.size());
+        
+        List<PlayerDTO> pageItems = start < candidates.size()
+            ? candidates.subList(start, end).stream().map(c -> PlayerDTO.from(snapshot.player(c.ordinal()))).toList()
+            : List.of();
+        
+        return SearchResultDTO.of(pageItems, page, size, candidates.size()).withPartial(current.partial());
     }
     
-    private boolean matchesLeague(Player player, String league) {
-        if (league == null || league.isBlank()) return true;
-        String normalizedLeague = normalizeString(league);
-        String playerLeague = normalizeString(player.league());
-        return playerLeague.contains(normalizedLeague);
+    public Optional<Player> getPlayer(String id) {
+        PlayerTable snapshot = dataset.table();
+        int ordinal = snapshot.find(id);
+        return ordinal < 0 ? Optional.empty() : Optional.of(snapshot.player(ordinal));
     }
     
-    private boolean matchesPosition(Player player, String position) {
-        if (position == null || position.isBlank()) return true;
-        return player.positions().stream()
-            .anyMatch(p -> p.toLowerCase().contains(position.toLowerCase()));
+    /** The id a player is stored under, which differs from {@code id} for a merged alias. */
+    public Optional<String> canonicalId(String id) {
+        PlayerTable snapshot = dataset.table();
+        int ordinal = snapshot.find(id);
+        return ordinal < 0 ? Optional.empty() : Optional.of(snapshot.id(ordinal));
     }
     
-    public Optional<Player> getPlayer(String id) {
-        return players.stream().filter(p -> p.id().equals(id)).findFirst();
+    public Optional<PlayerView> getPlayerView(String id, int fields) {
+        PlayerTable snapshot = dataset.table();
+        int ordinal = snapshot.find(id);
+        return ordinal < 0 ? Optional.empty() : Optional.of(new PlayerView(snapshot, ordinal, fields));
     }
     
     public List<String> getClubs() {
-        return players.stream()
-            .map(Player::club)
-            .filter(Objects::nonNull)
-            .distinct()
-            .sorted()
-            .toList();
+        return sortedValues(dataset.table().clubs());
     }
     
     public List<String> getNationalities() {
-        return players.stream()
-            .map(Player::nationality)
-            .filter(Objects::nonNull)
-            .distinct()
-            .sorted()
-            .toList();
+        return sortedValues(dataset.table().nationalities());
     }
     
     public List<String> getLeagues() {
-        return players.stream()
-            .map(Player::league)
-            .filter(Objects::nonNull)
-            .distinct()
-            .sorted()
-            .toList();
+        return sortedValues(dataset.table().leagues());
+    }
+    
+    static List<String> sortedValues(PlayerTable.Dictionary dictionary) {
+        return dictionary.values().stream().sorted().toList();
     }
     
     public int getPlayerCount() {
-        return players.size();
+        return dataset.table().size();
     }
     
     public int reloadPlayers() {
-        players.clear();
-        loadPlayersFromScraperOutput();
-        return players.size();
+        return publishPlayers(loadFileSystemPlayers()).table().size();
+    }
+    
+    /** Players parsed from the scraper output directory with duplicates merged, not yet published. */
+    PlayerIdentity.Resolved loadFileSystemPlayers() {
+        List<PlayerIdentity.SourceRecord> records = new ArrayList<>();
+        fileSystemSources().forEach(source -> loadSource(source, records));
+        return resolve(records);
+    }
+    
+    /** Publishes a complete dataset of already resolved players, e.g. a shared snapshot. */
+    PlayerDataset publishPlayers(PlayerIdentity.Resolved players) {
+        return publish(buildTable(players), false);
+    }
+    
+    /**
+     * Replaces every player whose league has slug {@code slug} with
+     * {@code players} and publishes the result; other leagues are copied from
+     * the current table without parsing anything again. The new players take
+     * the place of the league's first player, or go last for a new league.
+     * Aliases of the copied players are kept; those of replaced players are not.
+     *
+     * @throws IllegalArgumentException if a new player's id belongs to a player of another league
+     */
+    synchronized PlayerDataset replaceLeague(String slug, PlayerIdentity.Resolved upload) {
+        List<Player> players = upload.players();
+        PlayerTable table = dataset.table();
+        boolean[] replaced = new boolean[table.leagues().size()];
+        for (int league = 0; league < replaced.length; league++) {
+            replaced[league] = slug.equals(SquadIndex.slug(table.leagues().value(league)));
+        }
+        for (Player player : players) {
+            int existing = table.find(player.id());
+            if (existing >= 0 && (table.leagueId(existing) < 0 || !replaced[table.leagueId(existing)])) {
+                throw new IllegalArgumentException("Player id " + player.id() + " already belongs to "
+                    + table.name(existing) + " (" + table.league(existing) + ")");
+            }
+        }
+        PlayerTable.Builder builder = new PlayerTable.Builder();
+        boolean placed = false;
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            int league = table.leagueId(ordinal);
+            if (league >= 0 && replaced[league]) {
+                if (!placed) players.forEach(builder::add);
+                placed = true;
+            } else {
+                builder.add(table.player(ordinal));
+            }
+        }
+        if (!placed) players.forEach(builder::add);
+        table.aliases().forEach((alias, id) -> {
+            int target = table.leagueId(table.find(id));
+            if (target < 0 || !replaced[target]) builder.alias(alias, id);
+        });
+        upload.aliases().forEach(builder::alias);
+        return publish(builder.build(), dataset.partial());
     }
 }
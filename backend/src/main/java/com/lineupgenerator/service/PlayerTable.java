@@ -0,0 +1,568 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.model.Player;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Column-oriented, dictionary-encoded storage for the loaded player dataset.
+ *
+ * <p>Club, league, nationality, position codes and photo URL prefixes are
+ * interned into small dictionaries and stored as int/short ids. Per-player text
+ * (id, name, display name, photo file name) lives UTF-8 encoded in one shared
+ * byte arena, and (name, id) comparisons run on those bytes. Names, display
+ * names, clubs and nationalities are also kept {@link TextFolding#fold folded}
+ * for search, computed once per build (per dictionary id for the latter two)
+ * and UTF-8 encoded in a second arena, which the {@code folded*} matchers
+ * search without decoding. Each player's position codes are kept in source order in a second arena; the first is the
+ * primary position. {@link Player} objects are only materialized through
+ * {@link #player(int)}. Ids a player was merged from at load time stay
+ * resolvable through {@link #find} as aliases.
+ *
+ * <p>Instances are immutable once built; readers address players by ordinal.
+ */
+public final class PlayerTable {
+
+    private static final int TEXT_FIELDS = 4;
+    private static final int F_ID = 0;
+    private static final int F_NAME = 1;
+    private static final int F_DISPLAY_NAME = 2;
+    private static final int F_PHOTO = 3;
+    private static final short NO_NUMBER = Short.MIN_VALUE;
+    private static final int FOLDED_PLAYER_FIELDS = 2;
+
+    private final int size;
+    private final byte[] text;
+    private final int[] textOffsets;
+    private final int[] clubIds;
+    private final short[] leagueIds;
+    private final short[] nationalityIds;
+    private final short[] photoPrefixIds;
+    private final short[] positionCodeIds;
+    private final int[] positionOffsets;
+    private final short[] numbers;
+    private final int[] idSlots;
+    private final int[] nameRanks;
+    private final int[] rankOrder;
+    private final Map<String, Integer> aliases;
+    // Folded name and display name per ordinal, then one entry per club id and per nationality id
+    private final byte[] foldedText;
+    private final int[] foldedOffsets;
+
+    private final Dictionary clubs;
+    private final Dictionary leagues;
+    private final Dictionary nationalities;
+    private final Dictionary positionCodes;
+    private final Dictionary photoPrefixes;
+
+    private PlayerTable(Builder builder) {
+        this.size = builder.size;
+        this.text = Arrays.copyOf(builder.text, builder.textLength);
+        this.textOffsets = Arrays.copyOf(builder.textOffsets, builder.size * TEXT_FIELDS + 1);
+        this.clubIds = Arrays.copyOf(builder.clubIds, builder.size);
+        this.leagueIds = Arrays.copyOf(builder.leagueIds, builder.size);
+        this.nationalityIds = Arrays.copyOf(builder.nationalityIds, builder.size);
+        this.photoPrefixIds = Arrays.copyOf(builder.photoPrefixIds, builder.size);
+        this.positionCodeIds = Arrays.copyOf(builder.positionCodeIds, builder.positionLength);
+        this.positionOffsets = Arrays.copyOf(builder.positionOffsets, builder.size + 1);
+        this.numbers = Arrays.copyOf(builder.numbers, builder.size);
+        this.clubs = builder.clubs;
+        this.leagues = builder.leagues;
+        this.nationalities = builder.nationalities;
+        this.positionCodes = builder.positionCodes;
+        this.photoPrefixes = builder.photoPrefixes;
+        this.idSlots = buildIdSlots();
+        this.rankOrder = buildRankOrder();
+        this.nameRanks = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            nameRanks[rankOrder[rank]] = rank;
+        }
+        FoldedArena folded = new FoldedArena(FOLDED_PLAYER_FIELDS * size + clubs.size() + nationalities.size());
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            folded.add(name(ordinal));
+            folded.add(displayName(ordinal));
+        }
+        clubs.values().forEach(folded::add);
+        nationalities.values().forEach(folded::add);
+        this.foldedText = Arrays.copyOf(folded.text, folded.length);
+        this.foldedOffsets = folded.offsets;
+        this.aliases = new HashMap<>();
+        builder.aliases.forEach((alias, id) -> {
+            // A player's own id always wins over another player's alias
+            int ordinal = findId(id);
+            if (ordinal >= 0 && findId(alias) < 0) aliases.put(alias, ordinal);
+        });
+    }
+
+    public static PlayerTable empty() {
+        return new Builder().build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String id(int ordinal) {
+        return textField(ordinal, F_ID);
+    }
+
+    public String name(int ordinal) {
+        return textField(ordinal, F_NAME);
+    }
+
+    public String displayName(int ordinal) {
+        return textField(ordinal, F_DISPLAY_NAME);
+    }
+
+    public String club(int ordinal) {
+        return clubs.value(clubIds[ordinal]);
+    }
+
+    public String league(int ordinal) {
+        return leagues.value(leagueIds[ordinal]);
+    }
+
+    public String nationality(int ordinal) {
+        return nationalities.value(nationalityIds[ordinal]);
+    }
+
+    /** Folded search text of a player; a missing club or nationality is empty. */
+    public enum Folded { NAME, DISPLAY_NAME, CLUB, NATIONALITY }
+
+    /*
+     * The folded matchers take the term already folded and UTF-8 encoded, and
+     * behave like the String methods of the same name on the folded field.
+     */
+
+    public boolean foldedContains(int ordinal, Folded field, byte[] term) {
+        int entry = foldedEntry(ordinal, field);
+        return entry < 0 ? term.length == 0
+            : TextFolding.contains(foldedText, foldedOffsets[entry], foldedOffsets[entry + 1], term);
+    }
+
+    public boolean foldedEquals(int ordinal, Folded field, byte[] term) {
+        int entry = foldedEntry(ordinal, field);
+        return entry < 0 ? term.length == 0
+            : TextFolding.equals(foldedText, foldedOffsets[entry], foldedOffsets[entry + 1], term);
+    }
+
+    public boolean foldedStartsWith(int ordinal, Folded field, byte[] term) {
+        int entry = foldedEntry(ordinal, field);
+        return entry < 0 ? term.length == 0
+            : TextFolding.startsWith(foldedText, foldedOffsets[entry], foldedOffsets[entry + 1], term);
+    }
+
+    /** {@link TextFolding#startsAnyWord} on the folded field. */
+    public boolean foldedStartsAnyWord(int ordinal, Folded field, byte[] term) {
+        int entry = foldedEntry(ordinal, field);
+        return entry >= 0
+            && TextFolding.startsAnyWord(foldedText, foldedOffsets[entry], foldedOffsets[entry + 1], term);
+    }
+
+    /** {@link TextFolding#lastWordStartsWith} on the folded field. */
+    public boolean foldedLastWordStartsWith(int ordinal, Folded field, byte[] term) {
+        int entry = foldedEntry(ordinal, field);
+        return entry >= 0
+            && TextFolding.lastWordStartsWith(foldedText, foldedOffsets[entry], foldedOffsets[entry + 1], term);
+    }
+
+    private int foldedEntry(int ordinal, Folded field) {
+        return switch (field) {
+            case NAME -> FOLDED_PLAYER_FIELDS * ordinal;
+            case DISPLAY_NAME -> FOLDED_PLAYER_FIELDS * ordinal + 1;
+            case CLUB -> clubIds[ordinal] < 0 ? -1 : FOLDED_PLAYER_FIELDS * size + clubIds[ordinal];
+            case NATIONALITY -> nationalityIds[ordinal] < 0 ? -1
+                : FOLDED_PLAYER_FIELDS * size + clubs.size() + nationalityIds[ordinal];
+        };
+    }
+
+    public int clubId(int ordinal) {
+        return clubIds[ordinal];
+    }
+
+    public int leagueId(int ordinal) {
+        return leagueIds[ordinal];
+    }
+
+    public int nationalityId(int ordinal) {
+        return nationalityIds[ordinal];
+    }
+
+    public String photoUrl(int ordinal) {
+        int prefix = photoPrefixIds[ordinal];
+        if (prefix < 0) return null;
+        return photoPrefixes.value(prefix) + textField(ordinal, F_PHOTO);
+    }
+
+    public Integer number(int ordinal) {
+        return numbers[ordinal] == NO_NUMBER ? null : (int) numbers[ordinal];
+    }
+
+    /** Position codes exactly as loaded: primary first, then secondary codes in source order. */
+    public List<String> positions(int ordinal) {
+        int start = positionOffsets[ordinal];
+        int end = positionOffsets[ordinal + 1];
+        List<String> positions = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            positions.add(positionCodes.value(positionCodeIds[i]));
+        }
+        return positions;
+    }
+
+    public String primaryPosition(int ordinal) {
+        return positionCount(ordinal) == 0 ? null : positionCodes.value(positionCodeId(ordinal, 0));
+    }
+
+    public int positionCount(int ordinal) {
+        return positionOffsets[ordinal + 1] - positionOffsets[ordinal];
+    }
+
+    /** {@link #positionCodes()} id of the player's {@code index}-th position code, -1 for a null code. */
+    public int positionCodeId(int ordinal, int index) {
+        return positionCodeIds[positionOffsets[ordinal] + index];
+    }
+
+    public Dictionary clubs() {
+        return clubs;
+    }
+
+    public Dictionary leagues() {
+        return leagues;
+    }
+
+    public Dictionary nationalities() {
+        return nationalities;
+    }
+
+    public Dictionary positionCodes() {
+        return positionCodes;
+    }
+
+    public Player player(int ordinal) {
+        return new Player(
+            id(ordinal),
+            name(ordinal),
+            displayName(ordinal),
+            positions(ordinal),
+            club(ordinal),
+            nationality(ordinal),
+            league(ordinal),
+            photoUrl(ordinal),
+            number(ordinal)
+        );
+    }
+
+    /** Ordinal of the player with the given id or alias id, or -1. */
+    public int find(String id) {
+        int ordinal = findId(id);
+        return ordinal >= 0 || aliases.isEmpty() ? ordinal : aliases.getOrDefault(id, -1);
+    }
+
+    /** Alias id to the current id of the player it resolves to. */
+    public Map<String, String> aliases() {
+        Map<String, String> ids = new HashMap<>();
+        aliases.forEach((alias, ordinal) -> ids.put(alias, id(ordinal)));
+        return ids;
+    }
+
+    /** Position of the player in (name, id) order; the tie-breaker for search results. */
+    public int nameRank(int ordinal) {
+        return nameRanks[ordinal];
+    }
+
+    public int ordinalAtRank(int rank) {
+        return rankOrder[rank];
+    }
+
+    /**
+     * First rank whose (name, id) sorts strictly after the given key. Works for
+     * keys that are no longer (or never were) in this table.
+     */
+    public int rankAfter(String name, String id) {
+        byte[] nameKey = name.getBytes(StandardCharsets.UTF_8);
+        byte[] idKey = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareNameId(rankOrder[mid], nameKey, idKey) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Approximate retained heap of the table, for load-time logging. */
+    public long estimatedBytes() {
+        long bytes = text.length
+            + 4L * textOffsets.length
+            + 4L * clubIds.length
+            + 2L * (leagueIds.length + nationalityIds.length + photoPrefixIds.length + numbers.length)
+            + 2L * positionCodeIds.length
+            + 4L * positionOffsets.length
+            + 4L * idSlots.length
+            + 8L * size
+            + foldedText.length
+            + 4L * foldedOffsets.length;
+        return bytes + clubs.estimatedBytes() + leagues.estimatedBytes()
+            + nationalities.estimatedBytes() + positionCodes.estimatedBytes() + photoPrefixes.estimatedBytes();
+    }
+
+    /** Appends folded, UTF-8 encoded entries; entry i spans offsets[i] to offsets[i + 1]. */
+    private static final class FoldedArena {
+        private byte[] text = new byte[1024];
+        private int length;
+        private final int[] offsets;
+        private int entries;
+
+        FoldedArena(int capacity) {
+            this.offsets = new int[capacity + 1];
+        }
+
+        void add(String value) {
+            byte[] bytes = TextFolding.fold(value).getBytes(StandardCharsets.UTF_8);
+            if (length + bytes.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, length + bytes.length));
+            }
+            System.arraycopy(bytes, 0, text, length, bytes.length);
+            length += bytes.length;
+            offsets[++entries] = length;
+        }
+    }
+
+    private int findId(String id) {
+        if (id == null || size == 0) return -1;
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int mask = idSlots.length - 1;
+        for (int slot = Arrays.hashCode(key) & mask; ; slot = (slot + 1) & mask) {
+            int ordinal = idSlots[slot] - 1;
+            if (ordinal < 0) return -1;
+            if (textEquals(ordinal, F_ID, key)) return ordinal;
+        }
+    }
+
+    private String textField(int ordinal, int field) {
+        int index = ordinal * TEXT_FIELDS + field;
+        int start = textOffsets[index];
+        int end = textOffsets[index + 1];
+        return new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private boolean textEquals(int ordinal, int field, byte[] key) {
+        int index = ordinal * TEXT_FIELDS + field;
+        return Arrays.equals(text, textOffsets[index], textOffsets[index + 1], key, 0, key.length);
+    }
+
+    private boolean textEquals(int ordinal, int otherOrdinal, int field) {
+        int index = ordinal * TEXT_FIELDS + field;
+        int other = otherOrdinal * TEXT_FIELDS + field;
+        return Arrays.equals(text, textOffsets[index], textOffsets[index + 1],
+            text, textOffsets[other], textOffsets[other + 1]);
+    }
+
+    // Unsigned UTF-8 byte order, which is code point order
+    private int compareText(int ordinal, int otherOrdinal, int field) {
+        int index = ordinal * TEXT_FIELDS + field;
+        int other = otherOrdinal * TEXT_FIELDS + field;
+        return Arrays.compareUnsigned(text, textOffsets[index], textOffsets[index + 1],
+            text, textOffsets[other], textOffsets[other + 1]);
+    }
+
+    private int compareText(int ordinal, int field, byte[] key) {
+        int index = ordinal * TEXT_FIELDS + field;
+        return Arrays.compareUnsigned(text, textOffsets[index], textOffsets[index + 1], key, 0, key.length);
+    }
+
+    private int[] buildIdSlots() {
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int index = ordinal * TEXT_FIELDS + F_ID;
+            int start = textOffsets[index];
+            int hash = hashBytes(text, start, textOffsets[index + 1]);
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                if (textEquals(slots[slot] - 1, ordinal, F_ID)) break;
+                slot = (slot + 1) & mask;
+            }
+            // First occurrence of a duplicated id wins, matching the previous linear scan
+            if (slots[slot] == 0) slots[slot] = ordinal + 1;
+        }
+        return slots;
+    }
+
+    private int[] buildRankOrder() {
+        Integer[] order = new Integer[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            order[ordinal] = ordinal;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = compareText(a, b, F_NAME);
+            return cmp != 0 ? cmp : compareText(a, b, F_ID);
+        });
+        int[] ranks = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            ranks[rank] = order[rank];
+        }
+        return ranks;
+    }
+
+    private int compareNameId(int ordinal, byte[] name, byte[] id) {
+        int cmp = compareText(ordinal, F_NAME, name);
+        return cmp != 0 ? cmp : compareText(ordinal, F_ID, id);
+    }
+
+    private static int hashBytes(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    /** Interned string values addressed by small dense ids; -1 stands for null. */
+    public static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int intern(String value) {
+            if (value == null) return -1;
+            Integer id = ids.get(value);
+            if (id != null) return id;
+            values.add(value);
+            ids.put(value, values.size() - 1);
+            return values.size() - 1;
+        }
+
+        public int find(String value) {
+            if (value == null) return -1;
+            return ids.getOrDefault(value, -1);
+        }
+
+        public String value(int id) {
+            return id < 0 ? null : values.get(id);
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+        public List<String> values() {
+            return Collections.unmodifiableList(values);
+        }
+
+        long estimatedBytes() {
+            long bytes = 64L * values.size();
+            for (String value : values) bytes += value.length();
+            return bytes;
+        }
+    }
+
+    public static final class Builder {
+        private int size;
+        private byte[] text = new byte[4096];
+        private int textLength;
+        private int[] textOffsets = new int[64 * TEXT_FIELDS + 1];
+        private int[] clubIds = new int[64];
+        private short[] leagueIds = new short[64];
+        private short[] nationalityIds = new short[64];
+        private short[] photoPrefixIds = new short[64];
+        private short[] positionCodeIds = new short[128];
+        private int positionLength;
+        private int[] positionOffsets = new int[64 + 1];
+        private short[] numbers = new short[64];
+
+        private final Dictionary clubs = new Dictionary();
+        private final Dictionary leagues = new Dictionary();
+        private final Dictionary nationalities = new Dictionary();
+        private final Dictionary positionCodes = new Dictionary();
+        private final Dictionary photoPrefixes = new Dictionary();
+        private final Map<String, String> aliases = new HashMap<>();
+
+        public int size() {
+            return size;
+        }
+
+        /** Makes {@code alias} resolve to the player with id {@code id}, once both are in the table. */
+        public Builder alias(String alias, String id) {
+            aliases.put(alias, id);
+            return this;
+        }
+
+        public Builder add(Player player) {
+            ensureCapacity(size + 1);
+            int ordinal = size;
+
+            String photoUrl = player.photoUrl();
+            String photoFile = "";
+            photoPrefixIds[ordinal] = -1;
+            if (photoUrl != null) {
+                int split = photoUrl.lastIndexOf('/') + 1;
+                photoPrefixIds[ordinal] = shortId(photoPrefixes.intern(photoUrl.substring(0, split)), "photo URL prefixes");
+                photoFile = photoUrl.substring(split);
+            }
+
+            appendText(ordinal, F_ID, player.id());
+            appendText(ordinal, F_NAME, player.name());
+            appendText(ordinal, F_DISPLAY_NAME, player.displayName());
+            appendText(ordinal, F_PHOTO, photoFile);
+
+            clubIds[ordinal] = clubs.intern(player.club());
+            leagueIds[ordinal] = shortId(leagues.intern(player.league()), "leagues");
+            nationalityIds[ordinal] = shortId(nationalities.intern(player.nationality()), "nationalities");
+            numbers[ordinal] = player.number() == null ? NO_NUMBER : player.number().shortValue();
+
+            List<String> positions = player.positions() == null ? List.of() : player.positions();
+            if (positionLength + positions.size() > positionCodeIds.length) {
+                positionCodeIds = Arrays.copyOf(positionCodeIds,
+                    Math.max(positionCodeIds.length * 2, positionLength + positions.size()));
+            }
+            for (String position : positions) {
+                positionCodeIds[positionLength++] = shortId(positionCodes.intern(position), "position codes");
+            }
+            positionOffsets[ordinal + 1] = positionLength;
+
+            size++;
+            return this;
+        }
+
+        public PlayerTable build() {
+            return new PlayerTable(this);
+        }
+
+        private static short shortId(int id, String dictionary) {
+            if (id > Short.MAX_VALUE) {
+                throw new IllegalStateException("More than " + Short.MAX_VALUE + " distinct " + dictionary);
+            }
+            return (short) id;
+        }
+
+        private void appendText(int ordinal, int field, String value) {
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            if (textLength + bytes.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + bytes.length));
+            }
+            int index = ordinal * TEXT_FIELDS + field;
+            textOffsets[index] = textLength;
+            System.arraycopy(bytes, 0, text, textLength, bytes.length);
+            textLength += bytes.length;
+            textOffsets[index + 1] = textLength;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= clubIds.length) return;
+            int capacity = Math.max(required, clubIds.length * 2);
+            textOffsets = Arrays.copyOf(textOffsets, capacity * TEXT_FIELDS + 1);
+            clubIds = Arrays.copyOf(clubIds, capacity);
+            leagueIds = Arrays.copyOf(leagueIds, capacity);
+            nationalityIds = Arrays.copyOf(nationalityIds, capacity);
+            photoPrefixIds = Arrays.copyOf(photoPrefixIds, capacity);
+            positionOffsets = Arrays.copyOf(positionOffsets, capacity + 1);
+            numbers = Arrays.copyOf(numbers, capacity);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.lineupgenerator.service;
+
+import java.util.*;
+
+/**
+ * Maps canonical formation slot labels (the ones used by {@link FormationService})
+ * to the ordinals of players who can fill them. Built once per loaded player list
+ * and never mutated afterwards, so lookups are safe from any request thread.
+ */
+public final class PositionIndex {
+
+    public static final List<String> CANONICAL_CODES = List.of(
+        "GK", "LB", "CB", "RB", "LWB", "RWB", "CDM", "CM", "CAM", "LAM", "RAM", "LM", "RM", "LW", "RW", "ST"
+    );
+
+    // Source data uses a coarser vocabulary than the formation slots
+    private static final Map<String, String> SOURCE_ALIASES = Map.ofEntries(
+        Map.entry("G", "GK"),
+        Map.entry("GOALKEEPER", "GK"),
+        Map.entry("DM", "CDM"),
+        Map.entry("AM", "CAM"),
+        Map.entry("CF", "ST"),
+        Map.entry("SS", "ST")
+    );
+
+    public enum Fit { PRIMARY, SECONDARY, ADJACENT }
+
+    public record Candidate(int ordinal, Fit fit) {}
+
+    private final int size;
+    private final Map<String, BitSet> primaryFits;
+    private final Map<String, BitSet> secondaryFits;
+    private final Map<String, List<String>> adjacency;
+    private final Map<String, BitSet> byLeague;
+
+    private PositionIndex(int size,
+                          Map<String, BitSet> primaryFits,
+                          Map<String, BitSet> secondaryFits,
+                          Map<String, List<String>> adjacency,
+                          Map<String, BitSet> byLeague) {
+        this.size = size;
+        this.primaryFits = primaryFits;
+        this.secondaryFits = secondaryFits;
+        this.adjacency = adjacency;
+        this.byLeague = byLeague;
+    }
+
+    public static PositionIndex empty() {
+        return build(PlayerTable.empty(), Map.of());
+    }
+
+    public static PositionIndex build(PlayerTable table, Map<String, List<String>> adjacency) {
+        int size = table.size();
+        Map<String, BitSet> primaryFits = new HashMap<>();
+        Map<String, BitSet> secondaryFits = new HashMap<>();
+        Map<String, BitSet> byLeague = new HashMap<>();
+        for (String code : CANONICAL_CODES) {
+            primaryFits.put(code, new BitSet(size));
+            secondaryFits.put(code, new BitSet(size));
+        }
+
+        // Canonical code per source position-dictionary id, resolved once
+        PlayerTable.Dictionary sourceCodes = table.positionCodes();
+        String[] canonical = new String[sourceCodes.size()];
+        for (int code = 0; code < canonical.length; code++) {
+            canonical[code] = canonicalize(sourceCodes.value(code));
+        }
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int count = table.positionCount(ordinal);
+            int primary = count > 0 ? table.positionCodeId(ordinal, 0) : -1;
+            if (primary >= 0 && canonical[primary] != null) primaryFits.get(canonical[primary]).set(ordinal);
+            for (int i = 1; i < count; i++) {
+                int id = table.positionCodeId(ordinal, i);
+                if (id >= 0 && id != primary && canonical[id] != null) secondaryFits.get(canonical[id]).set(ordinal);
+            }
+            String league = table.league(ordinal);
+            if (league != null) {
+                byLeague.computeIfAbsent(league, l -> new BitSet(size)).set(ordinal);
+            }
+        }
+
+        return new PositionIndex(size, primaryFits, secondaryFits, normalizeAdjacency(adjacency), byLeague);
+    }
+
+    /**
+     * Resolves a free-form position string (slot label or source data code) to a
+     * canonical code, or {@code null} when it does not correspond to any slot.
+     */
+    public static String canonicalize(String position) {
+        if (position == null || position.isBlank()) return null;
+        String code = position.trim().toUpperCase(Locale.ROOT);
+        if (CANONICAL_CODES.contains(code)) return code;
+        return SOURCE_ALIASES.get(code);
+    }
+
+    /**
+     * Players eligible for {@code slot}, natural primary fits first, then players
+     * listing the slot as a secondary position, then fits from adjacent slots.
+     * Within a tier players keep their load order.
+     */
+    public List<Candidate> eligible(String slot, String league) {
+        String code = canonicalize(slot);
+        if (code == null) return List.of();
+
+        BitSet leagueMask = leagueMask(league);
+        BitSet seen = new BitSet(size);
+        List<Candidate> result = new ArrayList<>();
+
+        collect(primaryFits.get(code), leagueMask, seen, Fit.PRIMARY, result);
+        collect(secondaryFits.get(code), leagueMask, seen, Fit.SECONDARY, result);
+        for (String adjacent : adjacency.getOrDefault(code, List.of())) {
+            collect(primaryFits.get(adjacent), leagueMask, seen, Fit.ADJACENT, result);
+        }
+        for (String adjacent : adjacency.getOrDefault(code, List.of())) {
+            collect(secondaryFits.get(adjacent), leagueMask, seen, Fit.ADJACENT, result);
+        }
+        return result;
+    }
+
+    /** Canonical slots offered as fallbacks for {@code code}, in configured order. */
+    public List<String> adjacent(String code) {
+        return adjacency.getOrDefault(code, List.of());
+    }
+
+    /** How well the player fits canonical slot {@code code}, or {@code null} if not at all. */
+    public Fit fit(int ordinal, String code) {
+        if (primaryFits.get(code) == null) return null;
+        if (primaryFits.get(code).get(ordinal)) return Fit.PRIMARY;
+        if (secondaryFits.get(code).get(ordinal)) return Fit.SECONDARY;
+        for (String adjacent : adjacent(code)) {
+            if (primaryFits.get(adjacent).get(ordinal) || secondaryFits.get(adjacent).get(ordinal)) return Fit.ADJACENT;
+        }
+        return null;
+    }
+
+    /**
+     * Next ordinal at or after {@code from} listing canonical slot {@code code}
+     * as its primary (or, with {@code primary} false, a secondary) position; -1 when none.
+     */
+    public int nextFit(String code, boolean primary, int from) {
+        BitSet fits = (primary ? primaryFits : secondaryFits).get(code);
+        return fits == null ? -1 : fits.nextSetBit(from);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void collect(BitSet fits, BitSet leagueMask, BitSet seen, Fit fit, List<Candidate> out) {
+        if (fits == null) return;
+        BitSet matches = (BitSet) fits.clone();
+        if (leagueMask != null) matches.and(leagueMask);
+        matches.andNot(seen);
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            out.add(new Candidate(ordinal, fit));
+        }
+        seen.or(matches);
+    }
+
+    private BitSet leagueMask(String league) {
+        if (league == null || league.isBlank()) return null;
+        String normalizedLeague = TextFolding.fold(league);
+        BitSet mask = new BitSet(size);
+        byLeague.forEach((name, ordinals) -> {
+            if (TextFolding.fold(name).contains(normalizedLeague)) {
+                mask.or(ordinals);
+            }
+        });
+        return mask;
+    }
+
+    private static Map<String, List<String>> normalizeAdjacency(Map<String, List<String>> adjacency) {
+        Map<String, List<String>> normalized = new HashMap<>();
+        if (adjacency == null) return normalized;
+        adjacency.forEach((slot, neighbours) -> {
+            String code = canonicalize(slot);
+            if (code == null || neighbours == null) return;
+            List<String> codes = neighbours.stream()
+                .map(PositionIndex::canonicalize)
+                .filter(Objects::nonNull)
+                .filter(n -> !n.equals(code))
+                .distinct()
+                .toList();
+            normalized.put(code, codes);
+        });
+        return normalized;
+    }
+}
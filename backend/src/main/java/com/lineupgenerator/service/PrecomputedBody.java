@@ -0,0 +1,46 @@
+package com.lineupgenerator.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized response body kept in memory together with its gzip encoding
+ * and a strong ETag derived from the content. {@code gzip} is null when
+ * compressing would not make the body smaller.
+ */
+public record PrecomputedBody(byte[] identity, byte[] gzip, String etag) {
+
+    public static PrecomputedBody of(byte[] identity) {
+        byte[] gzip = gzip(identity);
+        return new PrecomputedBody(identity, gzip.length < identity.length ? gzip : null, etag(identity));
+    }
+
+    /** Strong validators must differ per encoding, so the gzip variant gets its own tag. */
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.dto.PlayerSearchRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Per-request search and export diagnostics kept in memory.
+ *
+ * <p>Requests slower than {@code app.diagnostics.slow-threshold-ms} go into a
+ * fixed-size ring that writers claim slots in with a single atomic increment,
+ * so the newest slow requests overwrite the oldest. Every search is also
+ * counted in a heavy-hitters sketch by its canonical parameters, and searches
+ * that missed the result cache in a second one; both halve periodically so
+ * they reflect recent traffic. Searches replayed by the cache warm-up are not
+ * user traffic and are left out of the miss counts.
+ */
+@Component
+public class QueryDiagnostics {
+
+    public record SlowRequest(Instant at, String kind, String params, double millis) {}
+
+    public record QueryCount(String params, long count) {}
+
+    private final AtomicReferenceArray<SlowRequest> slow;
+    private final AtomicLong slowCursor = new AtomicLong();
+    private final long slowThresholdNanos;
+    private final HeavyHitters queries;
+    private final HeavyHitters misses;
+    private final ExecutorService trimExecutor =
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().daemon().name("diagnostics-trim").factory());
+    private final ThreadLocal<Boolean> replaying = ThreadLocal.withInitial(() -> false);
+
+    public QueryDiagnostics(@Value("${app.diagnostics.slow-log-size:128}") int slowLogSize,
+                            @Value("${app.diagnostics.slow-threshold-ms:20}") long slowThresholdMs,
+                            @Value("${app.diagnostics.top-queries:500}") int topQueries) {
+        this.slow = new AtomicReferenceArray<>(slowLogSize);
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000;
+        this.queries = new HeavyHitters(4096, topQueries, trimExecutor);
+        this.misses = new HeavyHitters(4096, topQueries, trimExecutor);
+    }
+
+    public void recordSearch(PlayerSearchRequest request, long nanos) {
+        String params = canonical(request);
+        queries.add(params);
+        recordTiming("search", () -> params, nanos);
+    }
+
+    /** Called from inside the cached search method, so it only sees cache misses. */
+    void recordCacheMiss(PlayerSearchRequest request) {
+        if (replaying.get()) return;
+        misses.add(canonical(request));
+    }
+
+    /** Runs {@code replay} on this thread without counting the searches it makes as cache misses. */
+    <T> T replaying(Supplier<T> replay) {
+        replaying.set(true);
+        try {
+            return replay.get();
+        } finally {
+            replaying.remove();
+        }
+    }
+
+    /** {@code params} is only evaluated when the request was slow. */
+    public void recordTiming(String kind, Supplier<String> params, long nanos) {
+        if (nanos < slowThresholdNanos) return;
+        int slot = (int) (slowCursor.getAndIncrement() % slow.length());
+        slow.set(slot, new SlowRequest(Instant.now(), kind, params.get(), nanos / 1_000_000.0));
+    }
+
+    /** Slow requests currently in the ring, slowest first. */
+    public List<SlowRequest> slowest(int limit) {
+        List<SlowRequest> entries = new ArrayList<>(slow.length());
+        for (int i = 0; i < slow.length(); i++) {
+            SlowRequest entry = slow.get(i);
+            if (entry != null) entries.add(entry);
+        }
+        entries.sort(Comparator.comparingDouble(SlowRequest::millis).reversed());
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    public List<QueryCount> topQueries(int limit) {
+        return queries.top(limit).stream().map(e -> new QueryCount(e.key(), e.estimate())).toList();
+    }
+
+    public List<QueryCount> topCacheMisses(int limit) {
+        return misses.top(limit).stream().map(e -> new QueryCount(e.key(), e.estimate())).toList();
+    }
+
+    @Scheduled(fixedRateString = "${app.diagnostics.decay-interval-ms:600000}",
+               initialDelayString = "${app.diagnostics.decay-interval-ms:600000}")
+    public void decay() {
+        queries.decay();
+        misses.decay();
+    }
+
+    /**
+     * The request as a query string: fixed parameter order, blank values
+     * omitted, values URL-encoded. One search always yields the same string,
+     * so diagnostics count it once and the persisted warm-up keys stay stable
+     * across restarts, and {@link #parseCanonical} can read it back. Cursor
+     * positions are reduced to a bare {@code cursor} flag so cursor pages of
+     * one search count together.
+     */
+    public static String canonical(PlayerSearchRequest request) {
+        StringBuilder params = new StringBuilder(48);
+        append(params, "query", request.query());
+        append(params, "club", request.club());
+        append(params, "nationality", request.nationality());
+        append(params, "league", request.league());
+        append(params, "position", request.position());
+        if (request.cursor() != null) {
+            params.append(params.isEmpty() ? "" : "&").append("cursor");
+        } else {
+            append(params, "page", String.valueOf(request.page()));
+        }
+        append(params, "size", String.valueOf(request.size()));
+        return params.toString();
+    }
+
+    /** The request a {@link #canonical} string came from, or null for cursor pages and malformed input. */
+    public static PlayerSearchRequest parseCanonical(String canonical) {
+        Map<String, String> values = new HashMap<>();
+        for (String pair : canonical.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) return null;
+            values.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        try {
+            return new PlayerSearchRequest(values.get("query"), values.get("club"), values.get("nationality"),
+                values.get("league"), values.get("position"),
+                Integer.parseInt(values.getOrDefault("page", "0")), Integer.parseInt(values.getOrDefault("size", "20")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void append(StringBuilder params, String name, String value) {
+        if (value == null || value.isBlank()) return;
+        if (!params.isEmpty()) params.append('&');
+        params.append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    }
+}
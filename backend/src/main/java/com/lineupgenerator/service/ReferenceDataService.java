@@ -0,0 +1,67 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.dto.FormationDTO;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pre-serialized bodies for the list endpoints the frontend loads on every
+ * visit. Player-derived lists are rebuilt once per dataset version; formations
+ * and their picker sprites are fixed at startup and serialized once.
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final long FORMATIONS_VERSION = 0;
+
+    private final PlayerService playerService;
+    private final FormationService formationService;
+    private final FormationSprites formationSprites;
+    private final VersionedBodyCache datasetBodies;
+    private final VersionedBodyCache formationBodies;
+    private final PrecomputedBody formationSpritesPng;
+
+    public ReferenceDataService(PlayerService playerService, FormationService formationService,
+                                FormationSprites formationSprites, ObjectMapper objectMapper) {
+        this.playerService = playerService;
+        this.formationService = formationService;
+        this.formationSprites = formationSprites;
+        this.datasetBodies = new VersionedBodyCache(objectMapper);
+        this.formationBodies = new VersionedBodyCache(objectMapper);
+        this.formationSpritesPng = PrecomputedBody.of(formationSprites.png());
+    }
+
+    public PrecomputedBody formations() {
+        return formationBodies.get(FORMATIONS_VERSION, "formations", () -> formationService.getAllFormations()
+            .stream()
+            .map(FormationDTO::from)
+            .toList());
+    }
+
+    /** Sprite sheet layout, content hash and SVG in one body, so the picker needs a single request. */
+    public PrecomputedBody formationSprites() {
+        return formationBodies.get(FORMATIONS_VERSION, "sprites", formationSprites::sheet);
+    }
+
+    public PrecomputedBody formationSpritesPng() {
+        return formationSpritesPng;
+    }
+
+    public PrecomputedBody clubs() {
+        PlayerDataset dataset = playerService.dataset();
+        return datasetBodies.get(dataset.version(), "clubs",
+            () -> PlayerService.sortedValues(dataset.table().clubs()));
+    }
+
+    public PrecomputedBody nationalities() {
+        PlayerDataset dataset = playerService.dataset();
+        return datasetBodies.get(dataset.version(), "nationalities",
+            () -> PlayerService.sortedValues(dataset.table().nationalities()));
+    }
+
+    public PrecomputedBody leagues() {
+        PlayerDataset dataset = playerService.dataset();
+        return datasetBodies.get(dataset.version(), "leagues",
+            () -> PlayerService.sortedValues(dataset.table().leagues()));
+    }
+}
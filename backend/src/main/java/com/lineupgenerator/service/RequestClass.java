@@ -0,0 +1,34 @@
+package com.lineupgenerator.service;
+
+/** Endpoint classes that get separate admission limits. */
+public enum RequestClass {
+    /** Typeahead search, eligible players, replacement suggestions and single-player lookups. */
+    SEARCH,
+    /** Reference lists, formations, squads and shared lineups. */
+    FACETS,
+    /** SVG export rendering. */
+    EXPORT,
+    /** Player photos; a cold photo waits on the origin, so it must not shrink the other limits. */
+    PHOTOS,
+    /** Reloads and diagnostics. */
+    ADMIN;
+
+    /** The class of an API path, or null for paths that are never limited (health checks, non-API). */
+    public static RequestClass of(String path) {
+        if (path == null || !path.startsWith("/api/") || path.startsWith("/api/health")) return null;
+        if (path.startsWith("/api/admin/")) return ADMIN;
+        if (path.startsWith("/api/lineup/export")) return EXPORT;
+        if (path.equals("/api/lineup/suggest")) return SEARCH;
+        if (path.startsWith("/api/photos/")) return PHOTOS;
+        if (path.startsWith("/api/players/")) {
+            String rest = path.substring("/api/players/".length());
+            int slash = rest.indexOf('/');
+            String segment = slash >= 0 ? rest.substring(0, slash) : rest;
+            return switch (segment) {
+                case "clubs", "nationalities", "leagues", "count" -> FACETS;
+                default -> SEARCH;
+            };
+        }
+        return FACETS;
+    }
+}
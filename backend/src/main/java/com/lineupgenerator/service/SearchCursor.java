@@ -0,0 +1,41 @@
+package com.lineupgenerator.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the total search ordering (relevance score descending, then
+ * player name and id ascending). Carries the name and id rather than an
+ * ordinal so a cursor stays meaningful after the dataset is reloaded.
+ */
+public record SearchCursor(int score, String name, String id) {
+
+    private static final String VERSION = "1";
+    private static final char SEPARATOR = '\u0000';
+
+    public String encode() {
+        String raw = VERSION + SEPARATOR + score + SEPARATOR + name + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new SearchCursor(Integer.parseInt(parts[1]), parts[2], parts[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.dto.PlayerDTO;
+import com.lineupgenerator.dto.PlayerView;
+import com.lineupgenerator.dto.SearchResultDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of search hits as ordinals into the table they were found in. The
+ * response shape is decided afterwards: full DTOs, or a projection that
+ * reads only the requested columns. {@code partial} marks hits from a
+ * dataset that was still loading.
+ */
+public record SearchPage(
+    PlayerTable table,
+    int[] ordinals,
+    int page,
+    int size,
+    long total,
+    String nextCursor,
+    boolean partial
+) {
+    public SearchResultDTO<PlayerDTO> toDtos() {
+        List<PlayerDTO> items = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            items.add(PlayerDTO.from(table.player(ordinal)));
+        }
+        return SearchResultDTO.of(items, page, size, total, nextCursor).withPartial(partial);
+    }
+
+    public SearchResultDTO<PlayerView> project(int fields) {
+        List<PlayerView> items = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            items.add(new PlayerView(table, ordinal, fields));
+        }
+        return SearchResultDTO.of(items, page, size, total, nextCursor).withPartial(partial);
+    }
+}
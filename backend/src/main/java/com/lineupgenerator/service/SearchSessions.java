@@ -0,0 +1,121 @@
+package com.lineupgenerator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lineupgenerator.dto.PlayerSearchRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Per-session memory of recent search match sets, used to narrow
+ * search-as-you-type. Every match for a query is also a match for each of its
+ * prefixes under the same filters, so a query that extends an earlier one only
+ * has to be checked against the earlier query's matches.
+ *
+ * <p>Each session keeps a small access-ordered LRU of ordinal sets tied to the
+ * dataset version they were computed on; sessions expire after a period of
+ * inactivity. Large sets (short queries) are not kept, which bounds memory at
+ * roughly {@code maxSessions * entriesPerSession * maxCandidates} ints. Ids
+ * are handed out without creating a session; one is only created for an id a
+ * client sends back, so a single search never takes a slot.
+ */
+@Component
+public class SearchSessions {
+
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9_-]{8,64}");
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private record Entry(long version, String filters, String query, int[] ordinals) {}
+
+    private static final class Session {
+        private final Map<String, Entry> entries;
+
+        Session(int capacity) {
+            this.entries = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    private final Cache<String, Session> sessions;
+    private final int entriesPerSession;
+    private final int maxCandidates;
+
+    public SearchSessions(@Value("${app.search.sessions.max-sessions:1000}") int maxSessions,
+                          @Value("${app.search.sessions.entries-per-session:4}") int entriesPerSession,
+                          @Value("${app.search.sessions.max-candidates:2048}") int maxCandidates,
+                          @Value("${app.search.sessions.idle-timeout-ms:600000}") long idleTimeoutMs) {
+        this.sessions = Caffeine.newBuilder()
+            .maximumSize(maxSessions)
+            .expireAfterAccess(Duration.ofMillis(idleTimeoutMs))
+            .build();
+        this.entriesPerSession = entriesPerSession;
+        this.maxCandidates = maxCandidates;
+    }
+
+    public String newSessionId() {
+        byte[] bytes = new byte[12];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /** Client-supplied ids are accepted as-is if they look like ones we issue. */
+    public boolean isValidId(String sessionId) {
+        return sessionId != null && SESSION_ID.matcher(sessionId).matches();
+    }
+
+    /**
+     * All matches of the longest remembered query that {@code foldedQuery}
+     * extends under the same filters and dataset version, or null.
+     */
+    int[] candidates(String sessionId, long version, PlayerSearchRequest request, String foldedQuery) {
+        Session session = sessions.getIfPresent(sessionId);
+        if (session == null) return null;
+        String filters = filterKey(request);
+        Entry best = null;
+        synchronized (session) {
+            for (Entry entry : session.entries.values()) {
+                if (entry.version() == version
+                        && entry.filters().equals(filters)
+                        && foldedQuery.startsWith(entry.query())
+                        && (best == null || entry.query().length() > best.query().length())) {
+                    best = entry;
+                }
+            }
+            // Touch it so the LRU keeps the entry being refined
+            if (best != null) session.entries.get(best.filters() + '\0' + best.query());
+        }
+        return best != null ? best.ordinals() : null;
+    }
+
+    void record(String sessionId, long version, PlayerSearchRequest request, String foldedQuery, int[] ordinals) {
+        if (ordinals.length > maxCandidates) return;
+        Session session = sessions.get(sessionId, id -> new Session(entriesPerSession));
+        String filters = filterKey(request);
+        synchronized (session) {
+            session.entries.put(filters + '\0' + foldedQuery, new Entry(version, filters, foldedQuery, ordinals));
+        }
+    }
+
+    private static String filterKey(PlayerSearchRequest request) {
+        return String.join("\u0001",
+            nullToEmpty(request.club()),
+            nullToEmpty(request.nationality()),
+            nullToEmpty(request.league()),
+            nullToEmpty(request.position()));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
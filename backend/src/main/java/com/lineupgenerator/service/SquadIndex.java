@@ -0,0 +1,130 @@
+package com.lineupgenerator.service;
+
+import java.util.*;
+
+/**
+ * Club and league groupings of a {@link PlayerTable}, precomputed at load so a
+ * whole squad or a league's club list is a single map lookup. Clubs and
+ * leagues are addressed by slug ("inter-milan", "serie-a") or by name.
+ */
+public final class SquadIndex {
+
+    public enum Line { GK, DEF, MID, ATT }
+
+    private static final Map<String, Line> LINES = Map.ofEntries(
+        Map.entry("GK", Line.GK),
+        Map.entry("LB", Line.DEF), Map.entry("CB", Line.DEF), Map.entry("RB", Line.DEF),
+        Map.entry("LWB", Line.DEF), Map.entry("RWB", Line.DEF),
+        Map.entry("CDM", Line.MID), Map.entry("CM", Line.MID), Map.entry("CAM", Line.MID),
+        Map.entry("LAM", Line.MID), Map.entry("RAM", Line.MID), Map.entry("LM", Line.MID), Map.entry("RM", Line.MID),
+        Map.entry("LW", Line.ATT), Map.entry("RW", Line.ATT), Map.entry("ST", Line.ATT)
+    );
+
+    /** Squad of one club; ordinals per line are in position order, then by name. */
+    public record Squad(int clubId, String club, String slug, String league, Map<Line, int[]> lines) {
+        public int size() {
+            return lines.values().stream().mapToInt(l -> l.length).sum();
+        }
+    }
+
+    public record LeagueClubs(String league, String slug, List<Squad> clubs) {}
+
+    private final Map<String, Squad> squadsByKey;
+    private final Map<String, LeagueClubs> leaguesByKey;
+
+    private SquadIndex(Map<String, Squad> squadsByKey, Map<String, LeagueClubs> leaguesByKey) {
+        this.squadsByKey = squadsByKey;
+        this.leaguesByKey = leaguesByKey;
+    }
+
+    public static SquadIndex build(PlayerTable table) {
+        int clubCount = table.clubs().size();
+        List<List<Integer>> members = new ArrayList<>(clubCount);
+        for (int i = 0; i < clubCount; i++) members.add(new ArrayList<>());
+        int[] leagueOfClub = new int[clubCount];
+        Arrays.fill(leagueOfClub, -1);
+
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            int clubId = table.clubId(ordinal);
+            if (clubId < 0) continue;
+            members.get(clubId).add(ordinal);
+            if (leagueOfClub[clubId] < 0) leagueOfClub[clubId] = table.leagueId(ordinal);
+        }
+
+        Map<String, Squad> squadsByKey = new HashMap<>();
+        Map<Integer, List<Squad>> clubsByLeague = new TreeMap<>();
+        for (int clubId = 0; clubId < clubCount; clubId++) {
+            String club = table.clubs().value(clubId);
+            Squad squad = new Squad(clubId, club, slug(club), table.leagues().value(leagueOfClub[clubId]),
+                groupByLine(table, members.get(clubId)));
+            squadsByKey.putIfAbsent(squad.slug(), squad);
+            squadsByKey.putIfAbsent(club.toLowerCase(Locale.ROOT), squad);
+            clubsByLeague.computeIfAbsent(leagueOfClub[clubId], l -> new ArrayList<>()).add(squad);
+        }
+
+        Map<String, LeagueClubs> leaguesByKey = new HashMap<>();
+        clubsByLeague.forEach((leagueId, clubs) -> {
+            if (leagueId < 0) return;
+            clubs.sort(Comparator.comparing(Squad::club));
+            String league = table.leagues().value(leagueId);
+            LeagueClubs entry = new LeagueClubs(league, slug(league), List.copyOf(clubs));
+            leaguesByKey.putIfAbsent(entry.slug(), entry);
+            leaguesByKey.putIfAbsent(league.toLowerCase(Locale.ROOT), entry);
+        });
+
+        return new SquadIndex(squadsByKey, leaguesByKey);
+    }
+
+    public Optional<Squad> squad(String club) {
+        if (club == null) return Optional.empty();
+        Squad squad = squadsByKey.get(club.toLowerCase(Locale.ROOT));
+        return Optional.ofNullable(squad != null ? squad : squadsByKey.get(slug(club)));
+    }
+
+    public Optional<LeagueClubs> league(String league) {
+        if (league == null) return Optional.empty();
+        LeagueClubs clubs = leaguesByKey.get(league.toLowerCase(Locale.ROOT));
+        return Optional.ofNullable(clubs != null ? clubs : leaguesByKey.get(slug(league)));
+    }
+
+    static String slug(String value) {
+        if (value == null) return "";
+        String folded = TextFolding.fold(value);
+        StringBuilder slug = new StringBuilder(folded.length());
+        boolean dash = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                slug.append(c);
+                dash = false;
+            } else if (c != '.' && !dash && slug.length() > 0) {
+                slug.append('-');
+                dash = true;
+            }
+        }
+        int end = slug.length();
+        while (end > 0 && slug.charAt(end - 1) == '-') end--;
+        return slug.substring(0, end);
+    }
+
+    private static Map<Line, int[]> groupByLine(PlayerTable table, List<Integer> ordinals) {
+        List<String> order = PositionIndex.CANONICAL_CODES;
+        Map<Line, List<Integer>> grouped = new EnumMap<>(Line.class);
+        for (Line line : Line.values()) grouped.put(line, new ArrayList<>());
+        Map<Integer, Integer> positionOrder = new HashMap<>();
+
+        for (int ordinal : ordinals) {
+            String code = PositionIndex.canonicalize(table.primaryPosition(ordinal));
+            Line line = code == null ? Line.MID : LINES.get(code);
+            positionOrder.put(ordinal, code == null ? order.size() : order.indexOf(code));
+            grouped.get(line).add(ordinal);
+        }
+
+        Map<Line, int[]> lines = new EnumMap<>(Line.class);
+        grouped.forEach((line, members) -> {
+            members.sort(Comparator.<Integer>comparingInt(positionOrder::get).thenComparingInt(table::nameRank));
+            lines.put(line, members.stream().mapToInt(Integer::intValue).toArray());
+        });
+        return lines;
+    }
+}
@@ -0,0 +1,58 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.dto.ClubDTO;
+import com.lineupgenerator.dto.PlayerDTO;
+import com.lineupgenerator.dto.SquadDTO;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves squads and league club lists from the {@link SquadIndex}. Responses
+ * are serialized and compressed once per dataset version.
+ */
+@Service
+public class SquadService {
+
+    private final PlayerService playerService;
+    private final VersionedBodyCache cache;
+
+    public SquadService(PlayerService playerService, ObjectMapper objectMapper) {
+        this.playerService = playerService;
+        this.cache = new VersionedBodyCache(objectMapper);
+    }
+
+    public Optional<PrecomputedBody> squadJson(String club) {
+        PlayerDataset dataset = playerService.dataset();
+        return dataset.squads().squad(club)
+            .map(squad -> cache.get(dataset.version(), "squad:" + squad.clubId(), () -> toDto(dataset.table(), squad)));
+    }
+
+    public Optional<PrecomputedBody> leagueClubsJson(String league) {
+        PlayerDataset dataset = playerService.dataset();
+        return dataset.squads().league(league)
+            .map(clubs -> cache.get(dataset.version(), "league:" + clubs.slug(), () -> clubs.clubs().stream()
+                .map(squad -> new ClubDTO(squad.club(), squad.slug(), squad.league(), squad.size()))
+                .toList()));
+    }
+
+    private static SquadDTO toDto(PlayerTable table, SquadIndex.Squad squad) {
+        return new SquadDTO(
+            squad.club(),
+            squad.slug(),
+            squad.league(),
+            squad.size(),
+            players(table, squad.lines().get(SquadIndex.Line.GK)),
+            players(table, squad.lines().get(SquadIndex.Line.DEF)),
+            players(table, squad.lines().get(SquadIndex.Line.MID)),
+            players(table, squad.lines().get(SquadIndex.Line.ATT))
+        );
+    }
+
+    private static List<PlayerDTO> players(PlayerTable table, int[] ordinals) {
+        return Arrays.stream(ordinals).mapToObj(o -> PlayerDTO.from(table.player(o))).toList();
+    }
+}
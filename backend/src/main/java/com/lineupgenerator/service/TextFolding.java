@@ -0,0 +1,222 @@
+package com.lineupgenerator.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Case and accent folding for search text, equivalent to
+ * {@code Normalizer.normalize(s, NFD)} + stripping combining marks +
+ * {@code toLowerCase()}, but table driven.
+ *
+ * <p>Every char below U+0370 (Latin-1, Latin Extended-A/B and the combining
+ * diacritics block) is folded through a table computed from that reference
+ * pipeline at class load, so results are identical by construction. Pure
+ * lowercase ASCII input is returned as-is; other table-covered input is folded
+ * into a per-thread buffer with a single result allocation. Strings containing
+ * anything outside the table take the reference path unchanged.
+ *
+ * <p>The word helpers reproduce {@code split("\\s+")} semantics without regex,
+ * on strings or on UTF-8 encoded folded text.
+ */
+public final class TextFolding {
+
+    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final int TABLE_SIZE = 0x0370;
+    private static final char DROP = '\uffff';
+    private static final char SLOW = '\ufffe';
+    private static final char[] FOLD = new char[TABLE_SIZE];
+    private static final Map<Character, String> TRANSLITERATIONS = Map.ofEntries(
+        Map.entry('ø', "o"), Map.entry('æ', "ae"), Map.entry('œ', "oe"), Map.entry('ß', "ss"),
+        Map.entry('ł', "l"), Map.entry('đ', "d"), Map.entry('ð', "d"), Map.entry('þ', "th"),
+        Map.entry('ı', "i"), Map.entry('ħ', "h"), Map.entry('ŧ', "t"), Map.entry('ŋ', "n"),
+        Map.entry('ĳ', "ij"), Map.entry('ŀ', "l"), Map.entry('ſ', "s")
+    );
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    static {
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            String folded = reference(String.valueOf((char) c));
+            FOLD[c] = folded.isEmpty() ? DROP : folded.length() == 1 ? folded.charAt(0) : SLOW;
+        }
+    }
+
+    private TextFolding() {}
+
+    public static String fold(String input) {
+        if (input == null) return "";
+        int length = input.length();
+
+        int i = 0;
+        while (i < length) {
+            char c = input.charAt(i);
+            if (c >= 128 || (c >= 'A' && c <= 'Z')) break;
+            i++;
+        }
+        if (i == length) return input;
+
+        char[] buffer = BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        input.getChars(0, i, buffer, 0);
+        int out = i;
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= TABLE_SIZE) return reference(input);
+            char folded = FOLD[c];
+            if (folded == SLOW) return reference(input);
+            if (folded != DROP) buffer[out++] = folded;
+        }
+        return new String(buffer, 0, out);
+    }
+
+    /**
+     * {@link #fold} plus transliteration of Latin letters that have no
+     * decomposition (ø, æ, ß, ł, đ, ...), so "Ødegaard" and "odegaard" agree.
+     * Used for name keys, not for the primary match, which keeps plain folding.
+     */
+    public static String transliterate(String input) {
+        String folded = fold(input);
+        StringBuilder out = null;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            String replacement = c < 128 ? null : TRANSLITERATIONS.get(c);
+            if (replacement != null && out == null) {
+                out = new StringBuilder(folded.length() + 4).append(folded, 0, i);
+            }
+            if (out != null) {
+                if (replacement != null) out.append(replacement);
+                else out.append(c);
+            }
+        }
+        return out != null ? out.toString() : folded;
+    }
+
+    /** True if some whitespace-delimited word of {@code text} starts with {@code term}. */
+    public static boolean startsAnyWord(String text, String term) {
+        if (text == null || text.isEmpty() || term == null || term.isEmpty() || hasWhitespace(term)) return false;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if ((i == 0 || isWhitespace(text.charAt(i - 1))) && text.startsWith(term, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if {@code text} has more than one word and its last word starts with
+     * {@code term}; mirrors {@code parts.length > 1 && parts[last].startsWith(term)}.
+     */
+    public static boolean lastWordStartsWith(String text, String term) {
+        if (text == null || term == null || hasWhitespace(term)) return false;
+        int end = text.length();
+        while (end > 0 && isWhitespace(text.charAt(end - 1))) end--;
+        if (end == 0) return false;
+        int start = end;
+        while (start > 0 && !isWhitespace(text.charAt(start - 1))) start--;
+        if (start == 0) return false;
+        return text.startsWith(term, start);
+    }
+
+    /** Same tokens as {@code text.split("\\s+")}. */
+    public static String[] splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        if (length > 0 && isWhitespace(text.charAt(0))) {
+            while (i < length && isWhitespace(text.charAt(i))) i++;
+            if (i == length) return new String[0];
+            words.add("");
+        }
+        while (i < length) {
+            int start = i;
+            while (i < length && !isWhitespace(text.charAt(i))) i++;
+            words.add(text.substring(start, i));
+            while (i < length && isWhitespace(text.charAt(i))) i++;
+        }
+        if (words.isEmpty()) words.add(text);
+        return words.toArray(String[]::new);
+    }
+
+    /*
+     * The same matchers on UTF-8 encoded folded text, for the range [from, to)
+     * of an arena. UTF-8 is self-synchronizing, so a byte match is a char match,
+     * and whitespace is ASCII, so word boundaries fall on the same characters.
+     */
+
+    static boolean contains(byte[] text, int from, int to, byte[] term) {
+        return indexOf(text, from, to, term) >= 0;
+    }
+
+    static boolean startsWith(byte[] text, int from, int to, byte[] term) {
+        return to - from >= term.length && Arrays.equals(text, from, from + term.length, term, 0, term.length);
+    }
+
+    static boolean equals(byte[] text, int from, int to, byte[] term) {
+        return Arrays.equals(text, from, to, term, 0, term.length);
+    }
+
+    static boolean startsAnyWord(byte[] text, int from, int to, byte[] term) {
+        if (from == to || term.length == 0 || hasWhitespace(term)) return false;
+        for (int i = from; i < to; i++) {
+            if ((i == from || isWhitespace(text[i - 1])) && startsWith(text, i, to, term)) return true;
+        }
+        return false;
+    }
+
+    static boolean lastWordStartsWith(byte[] text, int from, int to, byte[] term) {
+        if (hasWhitespace(term)) return false;
+        int end = to;
+        while (end > from && isWhitespace(text[end - 1])) end--;
+        if (end == from) return false;
+        int start = end;
+        while (start > from && !isWhitespace(text[start - 1])) start--;
+        if (start == from) return false;
+        return startsWith(text, start, to, term);
+    }
+
+    private static int indexOf(byte[] text, int from, int to, byte[] term) {
+        if (term.length == 0) return from;
+        byte first = term[0];
+        for (int i = from, last = to - term.length; i <= last; i++) {
+            if (text[i] == first && Arrays.equals(text, i + 1, i + term.length, term, 1, term.length)) return i;
+        }
+        return -1;
+    }
+
+    /** The original folding pipeline, kept as the definition of correct output. */
+    static String reference(String input) {
+        if (input == null) return "";
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        return DIACRITICS_PATTERN.matcher(normalized).replaceAll("").toLowerCase();
+    }
+
+    // Regex \s: space, \t, \n, \u000B, \f, \r
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+    private static boolean hasWhitespace(byte[] text) {
+        for (byte b : text) {
+            if (isWhitespace(b)) return true;
+        }
+        return false;
+    }
+
+    private static boolean hasWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isWhitespace(text.charAt(i))) return true;
+        }
+        return false;
+    }
+}
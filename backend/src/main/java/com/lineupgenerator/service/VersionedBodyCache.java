@@ -0,0 +1,48 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Serialized responses keyed by name, valid for one dataset version. The first
+ * request after a reload starts a fresh map, so stale bodies are never served
+ * and old ones become garbage together. The version only moves forward: a
+ * request still holding an older dataset is answered from its own data without
+ * being cached, and cannot throw away the newer map.
+ */
+final class VersionedBodyCache {
+
+    private record Entries(long version, Map<String, PrecomputedBody> bodies) {}
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Entries> entries = new AtomicReference<>(new Entries(-1, Map.of()));
+
+    VersionedBodyCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    PrecomputedBody get(long version, String key, Supplier<Object> body) {
+        Entries current = entries.get();
+        while (current.version() < version) {
+            Entries next = new Entries(version, new ConcurrentHashMap<>());
+            current = entries.compareAndSet(current, next) ? next : entries.get();
+        }
+        if (current.version() > version) {
+            return serialize(key, body);
+        }
+        return current.bodies().computeIfAbsent(key, k -> serialize(k, body));
+    }
+
+    private PrecomputedBody serialize(String key, Supplier<Object> body) {
+        try {
+            return PrecomputedBody.of(objectMapper.writeValueAsBytes(body.get()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + key, e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.config.PositionProperties;
+import com.lineupgenerator.service.LeagueIngest.Outcome;
+import com.lineupgenerator.service.LeagueIngest.Result;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every way an upload is rejected leaves the dataset alone, and a valid one
+ * swaps the league. Only the applied test changes the shared dataset, and
+ * only Ligue 1, which no other test uses.
+ */
+class LeagueIngestTest {
+
+    private static PlayerService playerService;
+    private static LeagueIngest ingest;
+
+    @BeforeAll
+    static void load() {
+        playerService = newPlayerService();
+        playerService.initializePlayers();
+        ingest = new LeagueIngest(playerService, new DatasetReplication(playerService, "", 3), 64 * 1024, 100);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        playerService.shutdown();
+    }
+
+    @Test
+    void duplicateIdIsInvalid() throws IOException {
+        assertRejected(Outcome.INVALID, "Duplicate id t1", "serie-a", upload("serie-a", "Serie A", null,
+            player("t1", "Alpha One", "Test FC", null), player("t1", "Beta Two", "Test FC", null)));
+    }
+
+    @Test
+    void duplicateProfileUrlIsInvalid() throws IOException {
+        assertRejected(Outcome.INVALID, "Duplicate profile", "serie-a", upload("serie-a", "Serie A", null,
+            player("t1", "Alpha One", "Test FC", "https://example.com/p/1"),
+            player("t2", "Beta Two", "Test FC", "https://example.com/p/1")));
+    }
+
+    @Test
+    void duplicateNameAndClubIsInvalid() throws IOException {
+        assertRejected(Outcome.INVALID, "Duplicate name and club", "serie-a", upload("serie-a", "Serie A", null,
+            player("t1", "Alpha One", "Test FC", null), player("t2", "alpha one", "test fc", null)));
+    }
+
+    @Test
+    void playerCountMismatchIsInvalid() throws IOException {
+        assertRejected(Outcome.INVALID, "playerCount is 3", "serie-a", upload("serie-a", "Serie A", 3,
+            player("t1", "Alpha One", "Test FC", null), player("t2", "Beta Two", "Test FC", null)));
+    }
+
+    @Test
+    void slugMustMatchTheLeague() throws IOException {
+        assertRejected(Outcome.INVALID, "does not have slug serie-a", "serie-a", upload("serie-a", "La Liga", null,
+            player("t1", "Alpha One", "Test FC", null)));
+        // The document's own slug, when present, must agree with the one it was uploaded to
+        assertRejected(Outcome.INVALID, "Document is for league la-liga", "serie-a",
+            upload("la-liga", "Serie A", null, player("t1", "Alpha One", "Test FC", null)));
+    }
+
+    @Test
+    void uploadOverTheSizeCapIsTooLarge() throws IOException {
+        byte[] body = upload("serie-a", "Serie A", null, player("t1", "A".repeat(70 * 1024), "Test FC", null));
+        assertRejected(Outcome.TOO_LARGE, "exceeds", "serie-a", body);
+        // The cap applies to the decompressed document
+        assertRejected(Outcome.TOO_LARGE, "exceeds", "serie-a", gzip(body));
+    }
+
+    @Test
+    void uploadOverThePlayerCapIsTooLarge() throws IOException {
+        String[] players = new String[101];
+        for (int i = 0; i < players.length; i++) players[i] = player("t" + i, "Player " + i, "Test FC", null);
+        assertRejected(Outcome.TOO_LARGE, "More than 100 players", "serie-a",
+            upload("serie-a", "Serie A", null, players));
+    }
+
+    @Test
+    void corruptGzipIsInvalid() throws IOException {
+        byte[] body = gzip(upload("serie-a", "Serie A", null, player("t1", "Alpha One", "Test FC", null)));
+        assertRejected(Outcome.INVALID, "corrupt gzip", "serie-a", Arrays.copyOf(body, body.length / 2));
+    }
+
+    @Test
+    void idOfAnotherLeaguesPlayerIsAConflict() throws IOException {
+        PlayerTable table = playerService.dataset().table();
+        String bundesligaId = table.id(ordinalIn(table, "Bundesliga"));
+        assertRejected(Outcome.CONFLICT, "already belongs to", "serie-a", upload("serie-a", "Serie A", null,
+            player(bundesligaId, "Alpha One", "Test FC", null)));
+    }
+
+    @Test
+    void uploadBeforeTheStartupLoadIsNotReady() throws IOException {
+        PlayerService loading = newPlayerService();
+        try {
+            Result result = new LeagueIngest(loading, new DatasetReplication(loading, "", 3), 64 * 1024, 100)
+                .ingest("serie-a", new ByteArrayInputStream(upload("serie-a", "Serie A", null)));
+            assertEquals(Outcome.NOT_READY, result.outcome());
+        } finally {
+            loading.shutdown();
+        }
+    }
+
+    @Test
+    void validUploadReplacesTheLeague() throws IOException {
+        PlayerTable before = playerService.dataset().table();
+        String replacedId = before.id(ordinalIn(before, "Ligue 1"));
+        int ligue1 = 0;
+        for (int ordinal = 0; ordinal < before.size(); ordinal++) {
+            if ("Ligue 1".equals(before.league(ordinal))) ligue1++;
+        }
+
+        // Uploaded records without a league are placed in the uploaded one
+        Result result = ingest.ingest("ligue-1", new ByteArrayInputStream(gzip(upload("ligue-1", "Ligue 1", 2,
+            player("t1", "Alpha One", "Test FC", "https://example.com/p/1"),
+            player("t2", "Beta Two", "Test FC", null)))));
+
+        assertEquals(Outcome.APPLIED, result.outcome(), () -> String.join("; ", result.errors()));
+        assertEquals("Ligue 1", result.league());
+        assertEquals(2, result.players());
+        assertEquals(List.of(), result.errors());
+        assertEquals(playerService.dataset().version(), result.version());
+        assertEquals(before.size() - ligue1 + 2, playerService.getPlayerCount());
+        assertTrue(playerService.getPlayer(replacedId).isEmpty());
+        assertEquals("Ligue 1", playerService.getPlayer("t1").orElseThrow().league());
+        assertEquals("Ligue 1", playerService.getPlayer("t2").orElseThrow().league());
+    }
+
+    private static void assertRejected(Outcome outcome, String error, String slug, byte[] body) throws IOException {
+        PlayerDataset before = playerService.dataset();
+        Result result = ingest.ingest(slug, new ByteArrayInputStream(body));
+        assertEquals(outcome, result.outcome(), () -> String.join("; ", result.errors()));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains(error)), () -> String.join("; ", result.errors()));
+        assertSame(before, playerService.dataset());
+    }
+
+    private static PlayerService newPlayerService() {
+        return new PlayerService(new PositionProperties(Map.of()), new SearchSessions(100, 4, 2048, 600_000),
+            new QueryDiagnostics(16, 20, 50), new ConcurrentMapCacheManager("players"), 2, 0, false, List.of());
+    }
+
+    private static int ordinalIn(PlayerTable table, String league) {
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            if (league.equals(table.league(ordinal))) return ordinal;
+        }
+        throw new AssertionError("No player in " + league);
+    }
+
+    private static byte[] upload(String slug, String league, Integer playerCount, String... players) {
+        String count = playerCount != null ? ",\"playerCount\":" + playerCount : "";
+        return ("{\"league\":\"" + league + "\",\"slug\":\"" + slug + "\"" + count
+            + ",\"players\":[" + String.join(",", players) + "]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String player(String id, String name, String club, String profileUrl) {
+        String source = profileUrl != null ? ",\"source\":{\"transfermarktUrl\":\"" + profileUrl + "\"}" : "";
+        return "{\"id\":\"" + id + "\",\"name\":\"" + name + "\",\"primaryPosition\":\"CM\",\"club\":\"" + club
+            + "\"" + source + "}";
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package com.lineupgenerator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recovery of the lineup segment after a crash mid-append, and expiry and
+ * compaction of lineups nobody reads.
+ */
+class LineupStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private LineupStore store;
+
+    @AfterEach
+    void closeStore() throws IOException {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void recoveryDropsTornTail() throws Exception {
+        store = open();
+        String first = save("{\"formationId\":\"4-4-2\"}");
+        String second = save("{\"formationId\":\"4-3-3\"}");
+        store.close();
+        long intact = Files.size(segment());
+
+        // Half a record: the header claims more bytes than were written
+        byte[] record = Files.readAllBytes(segment());
+        Files.write(segment(), Arrays.copyOf(record, 30), StandardOpenOption.APPEND);
+
+        store = open();
+        assertEquals(2, store.size());
+        assertEquals("{\"formationId\":\"4-4-2\"}", read(first));
+        assertEquals("{\"formationId\":\"4-3-3\"}", read(second));
+        assertEquals(intact, Files.size(segment()));
+
+        String third = save("{\"formationId\":\"3-5-2\"}");
+        store.close();
+        store = open();
+        assertEquals(3, store.size());
+        assertEquals("{\"formationId\":\"3-5-2\"}", read(third));
+    }
+
+    @Test
+    void recoveryDropsRecordWithBadChecksum() throws Exception {
+        store = open();
+        String first = save("{\"formationId\":\"4-4-2\"}");
+        long firstEnd = Files.size(segment());
+        String second = save("{\"formationId\":\"4-3-3\"}");
+        store.close();
+
+        // Flip the last payload byte of the second record
+        byte[] bytes = Files.readAllBytes(segment());
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(segment(), bytes);
+
+        store = open();
+        assertEquals(1, store.size());
+        assertEquals("{\"formationId\":\"4-4-2\"}", read(first));
+        assertTrue(store.get(second).isEmpty());
+        assertEquals(firstEnd, Files.size(segment()));
+    }
+
+    @Test
+    void expiryDropsUnreadLineupsAndCompactionKeepsTheRest() throws Exception {
+        store = open();
+        String unread = save("{\"formationId\":\"4-3-3\",\"players\":[" + "{},".repeat(200) + "{}]}");
+        String reread = save("{\"formationId\":\"3-4-3\"}");
+        Thread.sleep(20);
+        long cutoff = System.currentTimeMillis();
+        Thread.sleep(20);
+        String kept = save("{\"formationId\":\"4-4-2\"}");
+        read(reread);
+        long before = Files.size(segment());
+
+        store.expire(cutoff).get(5, TimeUnit.SECONDS);
+
+        assertTrue(Files.size(segment()) < before);
+        assertEquals(2, store.size());
+        assertEquals("{\"formationId\":\"4-4-2\"}", read(kept));
+        assertEquals("{\"formationId\":\"3-4-3\"}", read(reread));
+        assertTrue(store.get(unread).isEmpty());
+
+        // The compacted segment is what a restart recovers from
+        store.close();
+        store = open();
+        assertEquals(2, store.size());
+        assertEquals("{\"formationId\":\"4-4-2\"}", read(kept));
+        assertTrue(store.get(unread).isEmpty());
+    }
+
+    @Test
+    void idsAreBase62AndStableForTheSameContent() throws Exception {
+        store = open();
+        String id = save("{\"formationId\":\"4-2-3-1\"}");
+        assertTrue(id.matches("[0-9A-Za-z]{8}"), id);
+        assertEquals(id, save("{\"formationId\":\"4-2-3-1\"}"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void closeCompletesQueuedWrites() throws Exception {
+        store = open();
+        var pending = store.save("{\"formationId\":\"5-3-2\"}".getBytes(StandardCharsets.UTF_8));
+        store.close();
+        String id = pending.get(5, TimeUnit.SECONDS);
+
+        store = open();
+        assertEquals("{\"formationId\":\"5-3-2\"}", read(id));
+    }
+
+    private LineupStore open() throws IOException {
+        LineupStore opened = new LineupStore();
+        ReflectionTestUtils.setField(opened, "storeDir", dir.toString());
+        ReflectionTestUtils.setField(opened, "maxPayloadBytes", 65536);
+        ReflectionTestUtils.setField(opened, "compactionThreshold", 0.3);
+        opened.open();
+        return opened;
+    }
+
+    private String save(String json) throws Exception {
+        return store.save(json.getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+    }
+
+    private String read(String id) {
+        return new String(store.get(id).orElseThrow(), StandardCharsets.UTF_8);
+    }
+
+    private Path segment() {
+        return dir.resolve("lineups.log");
+    }
+}
@@ -0,0 +1,80 @@
+package com.lineupgenerator.service;
+
+import com.lineupgenerator.config.PositionProperties;
+import com.lineupgenerator.dto.PlayerSearchRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cursor paging over the bundled data returns every match exactly once, in
+ * the same order as offset paging, including long runs of tied scores. The
+ * parallel threshold is 0, so unfiltered searches merge per-league shards.
+ */
+class PlayerSearchPagingTest {
+
+    private static PlayerService playerService;
+
+    @BeforeAll
+    static void load() {
+        playerService = new PlayerService(new PositionProperties(Map.of()), new SearchSessions(100, 4, 2048, 600_000),
+            new QueryDiagnostics(16, 20, 50), new ConcurrentMapCacheManager("players"), 2, 0, false, List.of());
+        playerService.initializePlayers();
+        assertTrue(playerService.getPlayerCount() > 1000);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        playerService.shutdown();
+    }
+
+    @ParameterizedTest
+    @CsvSource(nullValues = "-", value = {
+        // No query: every match scores 0
+        "-, -, cb, 7",
+        "-, Serie A, -, 13",
+        // Short and common queries: large groups share a score
+        "a, -, -, 11",
+        "an, -, m, 5",
+        "silva, -, -, 3",
+        "son, Premier League, -, 4"
+    })
+    void cursorPagesReturnEveryMatchOnceInOffsetOrder(String query, String league, String position, int size) {
+        List<String> byCursor = new ArrayList<>();
+        long total = -1;
+        String cursor = null;
+        do {
+            SearchPage page = playerService.searchPlayers(
+                new PlayerSearchRequest(query, null, null, league, position, 0, size, cursor), null);
+            if (total < 0) total = page.total();
+            assertEquals(total, page.total());
+            assertTrue(page.ordinals().length <= size);
+            for (int ordinal : page.ordinals()) byCursor.add(page.table().id(ordinal));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertTrue(total > size, "expected several pages, got " + total + " matches");
+        assertEquals(total, byCursor.size());
+        Set<String> unique = new HashSet<>(byCursor);
+        assertEquals(byCursor.size(), unique.size(), "a player was returned twice");
+
+        List<String> byOffset = new ArrayList<>();
+        for (int page = 0; byOffset.size() < total; page++) {
+            SearchPage result = playerService.searchPlayers(
+                new PlayerSearchRequest(query, null, null, league, position, page, 50), null);
+            if (result.ordinals().length == 0) break;
+            for (int ordinal : result.ordinals()) byOffset.add(result.table().id(ordinal));
+        }
+        assertEquals(byOffset, byCursor);
+    }
+}
@@ -0,0 +1,383 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineupgenerator.controller.ExportController;
+import com.lineupgenerator.dto.ExportRequest;
+import com.lineupgenerator.dto.PlayerSearchRequest;
+import com.lineupgenerator.model.LineupPlayer;
+import com.lineupgenerator.model.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers search, lookups, facets and export from many threads, first with a
+ * stable dataset and then while reloads alternate between two different data
+ * directories, and checks that every answer comes from one consistent, current
+ * dataset. Prints throughput and latency per operation for both phases.
+ *
+ * <p>Run with {@code mvn test -Pstress}; {@code -Dstress.seconds} and
+ * {@code -Dstress.threads} change the phase length and worker count.
+ */
+@Tag("stress")
+@SpringBootTest(properties = {
+    "app.warmup.enabled=false",
+    "app.admission.enabled=false",
+    "logging.level.com.lineupgenerator=WARN"
+})
+class PlayerServiceStressTest {
+
+    private static final int SECONDS = Integer.getInteger("stress.seconds", 10);
+    private static final int THREADS = Integer.getInteger("stress.threads",
+        Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+    private static final List<String> LEAGUE_FILTERS = List.of("Premier League", "Bundesliga", "Serie A", "Liga");
+
+    @TempDir
+    static Path tempDir;
+    private static Path fullDir;
+    private static Path subsetDir;
+
+    @Autowired
+    private PlayerService playerService;
+    @Autowired
+    private ReferenceDataService referenceDataService;
+    @Autowired
+    private ExportController exportController;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Versions of every table published during the run, by identity. */
+    private final Map<PlayerTable, Long> tableVersions = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<PlayerTable, Map<String, Integer>> expectedLeagueTotals = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Set<List<String>> allowedLeagues = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> allowedCounts = ConcurrentHashMap.newKeySet();
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+    @BeforeAll
+    static void copyData() throws IOException {
+        // Full: every league file. Subset: two of them, so reloads visibly change counts and facets.
+        fullDir = Files.createDirectories(tempDir.resolve("full"));
+        subsetDir = Files.createDirectories(tempDir.resolve("subset"));
+        Resource[] sources = new PathMatchingResourcePatternResolver().getResources("classpath:data/*.json");
+        for (Resource source : sources) {
+            byte[] bytes;
+            try (InputStream in = source.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            String name = source.getFilename();
+            Files.write(fullDir.resolve(name), bytes);
+            if (name.startsWith("premier-league") || name.startsWith("serie-a")) {
+                Files.write(subsetDir.resolve(name), bytes);
+            }
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("scraper.output.dir", () -> fullDir.toString());
+        registry.add("app.lineups.dir", () -> tempDir.resolve("lineups").toString());
+        registry.add("app.photos.cache-dir", () -> tempDir.resolve("photos").toString());
+    }
+
+    private enum Op { SEARCH_ALL, SEARCH_LEAGUE, TYPEAHEAD, LOOKUP, FACETS, ELIGIBLE, EXPORT }
+
+    @Test
+    void searchStaysConsistentUnderReload() throws Exception {
+        registerCurrent();
+        List<String> sharedIds = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        reloadFrom(subsetDir);
+        PlayerTable subset = playerService.dataset().table();
+        for (int ordinal = 0; ordinal < subset.size(); ordinal += 7) {
+            sharedIds.add(subset.id(ordinal));
+            names.add(subset.name(ordinal));
+        }
+        reloadFrom(fullDir);
+        for (String id : sharedIds) {
+            assertTrue(playerService.getPlayer(id).isPresent(), "player " + id + " missing from the full dataset");
+        }
+
+        // Unmeasured, so the steady phase is not compared against cold code
+        run("warm-up", sharedIds, names, false, Math.max(1, SECONDS / 3));
+        Phase steady = run("steady", sharedIds, names, false, SECONDS);
+        Phase reloading = run("reload", sharedIds, names, true, SECONDS);
+
+        System.out.println(steady.report());
+        System.out.println(reloading.report());
+        assertEquals(List.of(), steady.errors(), "exceptions while steady");
+        assertEquals(List.of(), reloading.errors(), "exceptions during reloads");
+        assertEquals(List.of(), List.copyOf(violations), "inconsistent results");
+        assertTrue(reloading.reloads() >= 2, "expected repeated reloads, got " + reloading.reloads());
+        assertTrue(reloading.totalOps() > 0, "no requests completed during reloads");
+    }
+
+    private Phase run(String label, List<String> ids, List<String> names, boolean reload, int seconds)
+            throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        Recorder[] recorders = new Recorder[THREADS];
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS + 1);
+        AtomicLong reloads = new AtomicLong();
+        AtomicLong reloadNanos = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            Recorder recorder = recorders[t] = new Recorder();
+            String session = label + "-" + t;
+            futures.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Op[] ops = Op.values();
+                while (!stop.get()) {
+                    Op op = ops[random.nextInt(ops.length)];
+                    long started = System.nanoTime();
+                    try {
+                        execute(op, random, ids, names, session);
+                    } catch (Throwable e) {
+                        if (errors.size() < 20) errors.add(op + ": " + e);
+                    }
+                    recorder.add(op, System.nanoTime() - started);
+                }
+            }));
+        }
+        if (reload) {
+            futures.add(workers.submit(() -> {
+                boolean subset = true;
+                while (!stop.get()) {
+                    long started = System.nanoTime();
+                    try {
+                        reloadFrom(subset ? subsetDir : fullDir);
+                    } catch (Throwable e) {
+                        if (errors.size() < 20) errors.add("RELOAD: " + e);
+                    }
+                    reloadNanos.addAndGet(System.nanoTime() - started);
+                    reloads.incrementAndGet();
+                    subset = !subset;
+                }
+            }));
+        }
+
+        long started = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - started;
+        workers.shutdown();
+        return new Phase(label, elapsed, Recorder.merge(recorders), List.copyOf(errors),
+            reloads.get(), reloads.get() > 0 ? reloadNanos.get() / reloads.get() : 0);
+    }
+
+    private void execute(Op op, ThreadLocalRandom random, List<String> ids, List<String> names, String session) {
+        switch (op) {
+            case SEARCH_ALL -> {
+                long before = playerService.dataset().version();
+                SearchPage page = playerService.searchPlayers(
+                    new PlayerSearchRequest(null, null, null, null, null, random.nextInt(5), 20), null);
+                PlayerTable table = checkPage(page, before, "all");
+                check(page.total() == table.size(), "unfiltered total %d != table size %d", page.total(), table.size());
+                check(allowedCounts.contains(table.size()), "unexpected dataset size %d", table.size());
+            }
+            case SEARCH_LEAGUE -> {
+                String league = LEAGUE_FILTERS.get(random.nextInt(LEAGUE_FILTERS.size()));
+                long before = playerService.dataset().version();
+                SearchPage page = playerService.searchPlayers(
+                    new PlayerSearchRequest(null, null, null, league, null, 0, 20), null);
+                PlayerTable table = checkPage(page, before, league);
+                int expected = expectedLeagueTotals
+                    .computeIfAbsent(table, t -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(league, l -> leagueTotal(table, l));
+                check(page.total() == expected, "league %s total %d != %d", league, page.total(), expected);
+                String folded = TextFolding.fold(league);
+                for (int ordinal : page.ordinals()) {
+                    String playerLeague = table.league(ordinal);
+                    check(playerLeague != null && TextFolding.fold(playerLeague).contains(folded),
+                        "player of %s in %s results", playerLeague, league);
+                }
+            }
+            case TYPEAHEAD -> {
+                String name = names.get(random.nextInt(names.size()));
+                int length = Math.min(name.length(), 2 + random.nextInt(4));
+                for (int i = 1; i <= length; i++) {
+                    long before = playerService.dataset().version();
+                    SearchPage page = playerService.searchPlayers(
+                        new PlayerSearchRequest(name.substring(0, i), null, null, null, null, 0, 10), session);
+                    checkPage(page, before, "typeahead");
+                }
+            }
+            case LOOKUP -> {
+                String id = ids.get(random.nextInt(ids.size()));
+                Optional<Player> player = playerService.getPlayer(id);
+                check(player.isPresent() && player.get().id().equals(id), "shared player %s not found", id);
+            }
+            case FACETS -> {
+                List<String> leagues = playerService.getLeagues();
+                check(allowedLeagues.contains(leagues), "unexpected league list %s", leagues);
+                List<String> body = readList(referenceDataService.leagues());
+                check(allowedLeagues.contains(body), "unexpected league body %s", body);
+                int count = playerService.getPlayerCount();
+                check(allowedCounts.contains(count), "unexpected player count %d", count);
+            }
+            case ELIGIBLE -> {
+                var result = playerService.getEligiblePlayers("CB", null, 0, 20);
+                check(result.items().size() <= 20, "page larger than requested");
+            }
+            case EXPORT -> {
+                String id = ids.get(random.nextInt(ids.size()));
+                ExportRequest request = new ExportRequest("4-4-2",
+                    List.of(new LineupPlayer(id, "cb", "Stress", "Stress", null, 4, 40.0, 70.0, null)),
+                    null, "svg", 540, 675);
+                ResponseEntity<String> response = exportController.exportSvg(request);
+                check(response.getStatusCode().is2xxSuccessful() && response.getBody().endsWith("</svg>"),
+                    "export failed: %s", response.getStatusCode());
+            }
+        }
+    }
+
+    /** The page's table must be a published one, no older than the version current when the call started. */
+    private PlayerTable checkPage(SearchPage page, long versionBefore, String what) {
+        PlayerTable table = page.table();
+        Long version = versionOf(table);
+        check(version != null, "%s page from an unknown table", what);
+        check(version == null || version >= versionBefore,
+            "%s page from version %s, older than %d", what, version, versionBefore);
+        check(!page.partial(), "%s page marked partial", what);
+        check(page.total() >= page.ordinals().length, "%s total %d below page length %d",
+            what, page.total(), page.ordinals().length);
+        for (int ordinal : page.ordinals()) {
+            check(ordinal >= 0 && ordinal < table.size(), "%s ordinal %d outside table of %d", what, ordinal, table.size());
+        }
+        return table;
+    }
+
+    // The reload thread registers a table just after publishing it, so readers may see it first
+    private Long versionOf(PlayerTable table) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Long version;
+        while ((version = tableVersions.get(table)) == null && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return version;
+    }
+
+    private void reloadFrom(Path dir) {
+        PlayerService target = AopTestUtils.getTargetObject(playerService);
+        ReflectionTestUtils.setField(target, "scraperOutputDir", dir.toString());
+        playerService.reloadPlayers();
+        registerCurrent();
+    }
+
+    private void registerCurrent() {
+        PlayerDataset dataset = playerService.dataset();
+        allowedCounts.add(dataset.table().size());
+        allowedLeagues.add(PlayerService.sortedValues(dataset.table().leagues()));
+        tableVersions.put(dataset.table(), dataset.version());
+    }
+
+    private static int leagueTotal(PlayerTable table, String league) {
+        String folded = TextFolding.fold(league);
+        int total = 0;
+        for (int ordinal = 0; ordinal < table.size(); ordinal++) {
+            String value = table.league(ordinal);
+            if (value != null && TextFolding.fold(value).contains(folded)) total++;
+        }
+        return total;
+    }
+
+    private List<String> readList(PrecomputedBody body) {
+        try {
+            byte[] json = body.identity();
+            if (json == null) {
+                try (InputStream in = new GZIPInputStream(new java.io.ByteArrayInputStream(body.gzip()))) {
+                    json = in.readAllBytes();
+                }
+            }
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void check(boolean condition, String message, Object... args) {
+        if (!condition && violations.size() < 50) violations.add(String.format(message, args));
+    }
+
+    private record Phase(String label, long elapsedNanos, Map<Op, long[]> latencies, List<String> errors,
+                         long reloads, long meanReloadNanos) {
+
+        long totalOps() {
+            return latencies.values().stream().mapToLong(samples -> samples.length).sum();
+        }
+
+        String report() {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder out = new StringBuilder(String.format(
+                "%n== %s: %d threads, %.1f s, %d ops (%.0f/s)", label, THREADS, seconds, totalOps(), totalOps() / seconds));
+            if (reloads > 0) {
+                out.append(String.format(", %d reloads (mean %.1f ms)", reloads, meanReloadNanos / 1e6));
+            }
+            out.append(String.format("%n%-14s %10s %10s %10s %10s %10s", "op", "ops/s", "p50 us", "p95 us", "p99 us", "max us"));
+            latencies.forEach((op, samples) -> {
+                Arrays.sort(samples);
+                out.append(String.format("%n%-14s %10.0f %10d %10d %10d %10d", op, samples.length / seconds,
+                    percentile(samples, 0.50), percentile(samples, 0.95), percentile(samples, 0.99),
+                    samples.length > 0 ? samples[samples.length - 1] / 1000 : 0));
+            });
+            return out.toString();
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1000;
+        }
+    }
+
+    /** Per-thread latency samples, merged once the phase is over. */
+    private static final class Recorder {
+        private final long[][] samples = new long[Op.values().length][1024];
+        private final int[] counts = new int[Op.values().length];
+
+        void add(Op op, long nanos) {
+            int i = op.ordinal();
+            if (counts[i] == samples[i].length) samples[i] = Arrays.copyOf(samples[i], counts[i] * 2);
+            samples[i][counts[i]++] = nanos;
+        }
+
+        static Map<Op, long[]> merge(Recorder[] recorders) {
+            Map<Op, long[]> merged = new EnumMap<>(Op.class);
+            for (Op op : Op.values()) {
+                int i = op.ordinal();
+                long[] all = new long[Arrays.stream(recorders).mapToInt(r -> r.counts[i]).sum()];
+                int offset = 0;
+                for (Recorder recorder : recorders) {
+                    System.arraycopy(recorder.samples[i], 0, all, offset, recorder.counts[i]);
+                    offset += recorder.counts[i];
+                }
+                merged.put(op, all);
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.lineupgenerator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The table-driven {@link TextFolding#fold} must agree with the reference
+ * NFD + strip marks + lowercase pipeline, and the UTF-8 matchers with their
+ * String counterparts.
+ */
+class TextFoldingTest {
+
+    @Test
+    void foldMatchesReferenceForEveryTableChar() {
+        for (char c = 0; c < 0x0370; c++) {
+            String single = String.valueOf(c);
+            assertEquals(TextFolding.reference(single), TextFolding.fold(single), () -> "U+" + Integer.toHexString(single.charAt(0)));
+            // Also mid-string, after an ASCII prefix the fast path has already copied
+            String embedded = "ab" + c + "Z";
+            assertEquals(TextFolding.reference(embedded), TextFolding.fold(embedded), () -> "ab U+" + Integer.toHexString(single.charAt(0)) + " Z");
+        }
+    }
+
+    @Test
+    void foldMatchesReferenceForPlayerNames() throws IOException {
+        List<String> names = playerNames();
+        assertFalse(names.isEmpty());
+        for (String name : names) {
+            assertEquals(TextFolding.reference(name), TextFolding.fold(name), name);
+        }
+    }
+
+    @Test
+    void foldMatchesReferenceOutsideTheTable() {
+        for (String text : List.of("Ξανθη", "Łukasz Fabiański", "Đorđe Petrović", "İlkay Gündoğan", "Ḿ", "Son Heung-min 손흥민")) {
+            assertEquals(TextFolding.reference(text), TextFolding.fold(text), text);
+        }
+    }
+
+    @Test
+    void byteMatchersAgreeWithStringMatchers() throws IOException {
+        List<String> terms = List.of("", "a", "silva", "de", "mu", "muller", "o", "son", "van d", "é", "ø", "ξ", "손", "z");
+        for (String name : playerNames()) {
+            String folded = TextFolding.fold(name);
+            // Padded, so the matchers must respect the range rather than the array bounds
+            byte[] arena = ("x " + folded + " y").getBytes(StandardCharsets.UTF_8);
+            int from = 2;
+            int to = arena.length - 2;
+            for (String term : terms) {
+                byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                assertEquals(folded.contains(term), TextFolding.contains(arena, from, to, bytes), folded + " / " + term);
+                assertEquals(folded.startsWith(term), TextFolding.startsWith(arena, from, to, bytes), folded + " / " + term);
+                assertEquals(folded.equals(term), TextFolding.equals(arena, from, to, bytes), folded + " / " + term);
+                assertEquals(TextFolding.startsAnyWord(folded, term), TextFolding.startsAnyWord(arena, from, to, bytes),
+                    folded + " / " + term);
+                assertEquals(TextFolding.lastWordStartsWith(folded, term),
+                    TextFolding.lastWordStartsWith(arena, from, to, bytes), folded + " / " + term);
+            }
+        }
+    }
+
+    private static List<String> playerNames() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> names = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:data/*.json")) {
+            try (InputStream in = resource.getInputStream()) {
+                for (JsonNode player : objectMapper.readTree(in).path("players")) {
+                    names.add(player.path("name").asText());
+                    names.add(player.path("shortName").asText());
+                    names.add(player.path("club").asText());
+                    names.add(player.path("nationality").asText());
+                }
+            }
+        }
+        return names;
+    }
+}
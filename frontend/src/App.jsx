@@ -32,9 +32,11 @@ function App() {
   const { exportLineup, exporting } = useExport()
   const [searchOpen, setSearchOpen] = useState(false)
   const [sidebarOpen, setSidebarOpen] = useState(true)
+  const [selectedSlot, setSelectedSlot] = useState(null)
 
-  const handlePositionClick = useCallback((positionId) => {
+  const handlePositionClick = useCallback((positionId, slotLabel) => {
     setSelectedPosition(positionId)
+    setSelectedSlot(slotLabel || null)
     setSearchOpen(true)
   }, [setSelectedPosition])
 
@@ -146,6 +148,8 @@ function App() {
             setSelectedPosition(null)
           }}
           position={selectedPosition}
+          slot={selectedSlot}
+          lineup={lineup}
         />
       </Suspense>
     </div>
@@ -167,7 +167,7 @@ const Pitch = forwardRef(function Pitch({
               left: `${position.x}%`,
               top: `${position.y}%`
             }}
-            onClick={() => !player && onPositionClick(position.id)}
+            onClick={() => !player && onPositionClick(position.id, position.label)}
             onDragOver={(e) => handleDragOver(e, position.id)}
             onDrop={(e) => handleDrop(e, position.id)}
           >
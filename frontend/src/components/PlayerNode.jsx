@@ -1,4 +1,5 @@
 import { memo, useState } from 'react'
+import { api } from '../services/api'
 
 const PlayerNode = memo(function PlayerNode({
   player,
@@ -71,7 +72,7 @@ const PlayerNode = memo(function PlayerNode({
         >
           {showPhoto ? (
             <img 
-              src={player.photoUrl} 
+              src={player.playerId ? api.photoUrl(player.playerId) : player.photoUrl}
               alt={player.name}
               className="w-full h-full object-cover"
               onError={() => setImageError(true)}
@@ -1,13 +1,14 @@
 import { useState, useEffect, useRef } from 'react'
 import * as Dialog from '@radix-ui/react-dialog'
 import { usePlayerSearch } from '../hooks/usePlayerSearch'
+import { api } from '../services/api'
 
-export default function PlayerSearch({ open, onOpenChange, onSelect, onClose, position }) {
+export default function PlayerSearch({ open, onOpenChange, onSelect, onClose, position, slot, lineup }) {
   const inputRef = useRef(null)
   const [query, setQuery] = useState('')
   const [imageErrors, setImageErrors] = useState(new Set())
   const [hasSearched, setHasSearched] = useState(false)
-  const { results, loading, search } = usePlayerSearch()
+  const { results, loading, search, searchEligible, suggest } = usePlayerSearch()
 
   useEffect(() => {
     if (open) {
@@ -17,6 +18,16 @@ export default function PlayerSearch({ open, onOpenChange, onSelect, onClose, po
     }
   }, [open])
 
+  useEffect(() => {
+    if (open && slot && query.trim().length === 0) {
+      if (position && lineup?.players.length > 0) {
+        suggest({ lineup, slotId: position, limit: 30 })
+      } else {
+        searchEligible({ slot, size: 30 })
+      }
+    }
+  }, [open, slot, position, lineup, query, searchEligible, suggest])
+
   useEffect(() => {
     if (query.trim().length >= 1) {
       const timeoutId = setTimeout(() => {
@@ -80,7 +91,7 @@ export default function PlayerSearch({ open, onOpenChange, onSelect, onClose, po
           </div>
           
           <div className="flex-1 overflow-y-auto">
-            {query.length === 0 ? (
+            {query.length === 0 && (!slot || results.length === 0) ? (
               <div className="flex flex-col items-center justify-center py-12 px-6 text-center">
                 <div className="w-12 h-12 rounded-full bg-[#1a1a1f] flex items-center justify-center mb-3">
                   <svg className="w-6 h-6 text-zinc-600" fill="none" stroke="currentColor" viewBox="0 0 24 24" strokeWidth="1.5">
@@ -111,7 +122,7 @@ export default function PlayerSearch({ open, onOpenChange, onSelect, onClose, po
                   >
                     <div className="w-10 h-10 rounded-full bg-[#252529] border border-[#333] overflow-hidden shrink-0">
                       {player.photoUrl && !imageErrors.has(player.id) ? (
-                        <img src={player.photoUrl} alt="" className="w-full h-full object-cover" onError={() => handleImageError(player.id)} loading="lazy"/>
+                        <img src={api.photoUrl(player.id)} alt="" className="w-full h-full object-cover" onError={() => handleImageError(player.id)} loading="lazy"/>
                       ) : (
                         <span className="w-full h-full flex items-center justify-center text-xs font-semibold text-zinc-500">{getInitials(player.name)}</span>
                       )}
@@ -120,6 +131,9 @@ export default function PlayerSearch({ open, onOpenChange, onSelect, onClose, po
                     <div className="flex-1 min-w-0">
                       <div className="text-sm font-medium text-white truncate">{player.name}</div>
                       <div className="text-[11px] text-zinc-500 truncate">{player.club} · {player.nationality}</div>
+                      {query.length === 0 && player.shared?.length > 0 && (
+                        <div className="text-[10px] text-emerald-400/80 truncate">Same {player.shared.join(', ')} as your XI</div>
+                      )}
                     </div>
 
                     {player.positions?.[0] && (
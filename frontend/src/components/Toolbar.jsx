@@ -1,6 +1,7 @@
 import * as DropdownMenu from '@radix-ui/react-dropdown-menu'
 import * as Popover from '@radix-ui/react-popover'
 import { useState } from 'react'
+import { useFormationSprites } from '../hooks/useFormationSprites'
 
 const FORMATION_CATEGORIES = [
   {
@@ -71,6 +72,7 @@ export default function Toolbar({
   onFormationSelect
 }) {
   const [formationOpen, setFormationOpen] = useState(false)
+  const { spriteStyle } = useFormationSprites()
   const currentFormationData = getAllFormations().find(f => f.id === currentFormation) || { name: '4-3-3' }
 
   return (
@@ -119,12 +121,14 @@ export default function Toolbar({
                 <div className="flex flex-wrap gap-1.5">
                   {POPULAR_FORMATIONS.map(id => {
                     const f = getAllFormations().find(f => f.id === id)
+                    const sprite = spriteStyle(id, settings)
                     return (
                       <button
                         key={id}
                         onClick={() => { onFormationSelect(id); setFormationOpen(false) }}
-                        className={`px-3 py-1.5 rounded-md text-xs font-medium transition-colors ${currentFormation === id ? 'bg-emerald-500 text-white' : 'bg-[#1a1a1f] text-zinc-300 hover:bg-[#252529]'}`}
+                        className={`flex flex-col items-center gap-1 px-3 py-1.5 rounded-md text-xs font-medium transition-colors ${currentFormation === id ? 'bg-emerald-500 text-white' : 'bg-[#1a1a1f] text-zinc-300 hover:bg-[#252529]'}`}
                       >
+                        {sprite && <span className="block rounded-sm" style={sprite} />}
                         {f?.name}
                       </button>
                     )
@@ -0,0 +1,55 @@
+import { useState, useEffect } from 'react'
+import { api } from '../services/api'
+
+let sheetPromise = null
+
+// One request for every picker thumbnail; the SVG sheet becomes a blob URL used as a CSS sprite
+function loadSheet() {
+  if (!sheetPromise) {
+    sheetPromise = api.getFormationSprites().then(sheet => {
+      const url = URL.createObjectURL(new Blob([sheet.svg], { type: 'image/svg+xml' }))
+      const tiles = new Map()
+      sheet.tiles.forEach(tile => {
+        tiles.set(tileKey(tile.formationId, tile.flipH, tile.flipV, tile.pitchStyle), tile)
+      })
+      return { ...sheet, url, tiles }
+    }).catch(err => {
+      sheetPromise = null
+      throw err
+    })
+  }
+  return sheetPromise
+}
+
+function tileKey(id, flipH, flipV, pitchStyle) {
+  return `${id}|${flipH ? 1 : 0}|${flipV ? 1 : 0}|${pitchStyle}`
+}
+
+export function useFormationSprites() {
+  const [sheet, setSheet] = useState(null)
+
+  useEffect(() => {
+    let cancelled = false
+    loadSheet()
+      .then(loaded => { if (!cancelled) setSheet(loaded) })
+      .catch(() => {})
+    return () => { cancelled = true }
+  }, [])
+
+  // Inline style showing one formation's thumbnail, or null when it has none
+  const spriteStyle = (formationId, settings) => {
+    if (!sheet) return null
+    const tile = sheet.tiles.get(tileKey(
+      formationId, settings.flippedHorizontal, settings.flippedVertical, settings.pitchStyle || 'grass'))
+    if (!tile) return null
+    return {
+      width: sheet.tileWidth,
+      height: sheet.tileHeight,
+      backgroundImage: `url(${sheet.url})`,
+      backgroundPosition: `-${tile.x}px -${tile.y}px`,
+      backgroundSize: `${sheet.width}px ${sheet.height}px`
+    }
+  }
+
+  return { spriteStyle }
+}
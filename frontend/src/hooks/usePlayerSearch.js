@@ -1,17 +1,20 @@
-import { useState, useCallback } from 'react'
+import { useState, useCallback, useRef } from 'react'
 import { api } from '../services/api'
 
 export function usePlayerSearch() {
   const [results, setResults] = useState([])
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState(null)
+  // Lets the backend narrow the previous keystroke's matches
+  const sessionRef = useRef(null)
 
   const search = useCallback(async (params) => {
     setLoading(true)
     setError(null)
     
     try {
-      const data = await api.searchPlayers(params)
+      const data = await api.searchPlayers({ ...params, session: sessionRef.current })
+      if (data.session) sessionRef.current = data.session
       setResults(data.items || [])
       return data
     } catch (err) {
@@ -22,10 +25,43 @@ export function usePlayerSearch() {
     }
   }, [])
 
+  const searchEligible = useCallback(async (params) => {
+    setLoading(true)
+    setError(null)
+
+    try {
+      const data = await api.getEligiblePlayers(params)
+      setResults(data.items || [])
+      return data
+    } catch (err) {
+      setError(err.message)
+      setResults([])
+    } finally {
+      setLoading(false)
+    }
+  }, [])
+
+  // Ranked by slot fit and shared club, league or nationality with the rest of the lineup
+  const suggest = useCallback(async (params) => {
+    setLoading(true)
+    setError(null)
+
+    try {
+      const data = await api.suggestReplacements(params)
+      setResults((data.items || []).map(item => ({ ...item.player, shared: item.shared })))
+      return data
+    } catch (err) {
+      setError(err.message)
+      setResults([])
+    } finally {
+      setLoading(false)
+    }
+  }, [])
+
   const clearResults = useCallback(() => {
     setResults([])
     setError(null)
   }, [])
 
-  return { results, loading, error, search, clearResults }
+  return { results, loading, error, search, searchEligible, suggest, clearResults }
 }
@@ -1,5 +1,5 @@
 import { useState, useCallback } from 'react'
-import api from '../services/api'
+import { api } from '../services/api'
 
 export function useTeamScraper() {
   const [leagues, setLeagues] = useState([])
@@ -34,8 +34,14 @@ export function useTeamScraper() {
     setScrapedPlayers([])
     
     try {
-      const data = await api.getTeamsInLeague(leagueId)
-      setTeams(data.teams || [])
+      // Bundled leagues are served from the backend index; fall back to a live scrape
+      const clubs = await api.getLeagueClubs(leagueId).catch(() => null)
+      if (clubs) {
+        setTeams(clubs.map(club => ({ id: club.slug, name: club.name, playerCount: club.playerCount })))
+      } else {
+        const data = await api.getTeamsInLeague(leagueId)
+        setTeams(data.teams || [])
+      }
       setSelectedLeague(leagueId)
     } catch (err) {
       setError('Failed to load teams. The league may not be available.')
@@ -51,6 +57,15 @@ export function useTeamScraper() {
     setScrapedPlayers([])
     
     try {
+      const squad = await api.getClubSquad(teamId).catch(() => null)
+      if (squad) {
+        const players = [...squad.goalkeepers, ...squad.defenders, ...squad.midfielders, ...squad.attackers]
+        setScrapedPlayers(players)
+        setSelectedTeam({ id: teamId, name: teamName })
+        setScrapeStatus(`Found ${players.length} players`)
+        return
+      }
+
       const data = await api.scrapeTeam(teamId, teamName, leagueId || selectedLeague)
       
       if (data.success) {
@@ -34,8 +34,12 @@ export const api = {
     if (flipV) params.append('flipV', 'true')
     return fetchWithTimeout(`${API_BASE}/formations/${id}?${params}`)
   },
+
+  async getFormationSprites() {
+    return fetchWithTimeout(`${API_BASE}/formations/sprites`)
+  },
   
-  async searchPlayers({ query, club, nationality, league, position, page = 0, size = 20 }) {
+  async searchPlayers({ query, club, nationality, league, position, page = 0, size = 20, cursor, session }) {
     const params = new URLSearchParams()
     if (query) params.append('query', query)
     if (club) params.append('club', club)
@@ -44,10 +48,34 @@ export const api = {
     if (position) params.append('position', position)
     params.append('page', page.toString())
     params.append('size', size.toString())
+    if (cursor) params.append('cursor', cursor)
+    if (session) params.append('session', session)
     
     return fetchWithTimeout(`${API_BASE}/players/search?${params}`)
   },
   
+  async getEligiblePlayers({ slot, league, page = 0, size = 30 }) {
+    const params = new URLSearchParams()
+    params.append('slot', slot)
+    if (league) params.append('league', league)
+    params.append('page', page.toString())
+    params.append('size', size.toString())
+
+    return fetchWithTimeout(`${API_BASE}/players/eligible?${params}`)
+  },
+  
+  async suggestReplacements({ lineup, slotId, limit = 30 }) {
+    return fetchWithTimeout(`${API_BASE}/lineup/suggest`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({
+        lineup: { formationId: lineup.formationId, players: lineup.players },
+        slotId,
+        limit
+      })
+    })
+  },
+  
   async getPlayer(id) {
     return fetchWithTimeout(`${API_BASE}/players/${id}`)
   },
@@ -64,6 +92,19 @@ export const api = {
     return fetchWithTimeout(`${API_BASE}/players/leagues`)
   },
   
+  async getLeagueClubs(league) {
+    return fetchWithTimeout(`${API_BASE}/leagues/${encodeURIComponent(league)}/clubs`)
+  },
+
+  async getClubSquad(club) {
+    return fetchWithTimeout(`${API_BASE}/clubs/${encodeURIComponent(club)}/squad`)
+  },
+
+  // Same-origin, locally cached copy of a player's photo (also keeps PNG export canvases untainted)
+  photoUrl(id, size = 'small') {
+    return `${API_BASE}/photos/${encodeURIComponent(id)}?size=${size}`
+  },
+  
   async prepareExport(lineup, settings, format = 'png') {
     return fetchWithTimeout(`${API_BASE}/lineup/export`, {
       method: 'POST',
@@ -79,6 +120,24 @@ export const api = {
     })
   },
 
+  async shareLineup(lineup, settings) {
+    return fetchWithTimeout(`${API_BASE}/lineups`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json'
+      },
+      body: JSON.stringify({
+        formationId: lineup.formationId,
+        players: lineup.players,
+        settings
+      })
+    })
+  },
+
+  async getSharedLineup(id) {
+    return fetchWithTimeout(`${API_BASE}/lineups/${id}`)
+  },
+
   async getScrapableLeagues() {
     return fetchWithTimeout(`${SCRAPER_API}/leagues`, {}, 10000)
   },
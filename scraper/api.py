@@ -1,7 +1,6 @@
 from flask import Flask, jsonify, request
 from flask_cors import CORS
 import logging
-import uuid
 from scraper import FootballScraper
 from config import TRANSFERMARKT_LEAGUES
 
@@ -133,9 +132,9 @@ def scrape_team():
                 raw.league = league_name
                 player = normalize_player(raw)
                 if player:
-                    # Convert to frontend format
+                    # Convert to frontend format; the id is models.Player's stable id, as in the backend
                     player_dict = {
-                        "id": str(uuid.uuid4()),
+                        "id": player.id,
                         "name": player.name,
                         "displayName": player.display_name or player.name.split()[-1],
                         "positions": player.positions,
@@ -0,0 +1,133 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for the backend: each simulated client issues a
+ * mix of player searches and SVG exports back to back for a fixed duration.
+ * Prints one summary line so runs against different thread modes can be
+ * compared directly. Run with {@code java scripts/ThreadModeBench.java}.
+ *
+ * <p>Usage: {@code ThreadModeBench <baseUrl> [clients] [seconds] [exportPercent] [label]}
+ */
+public class ThreadModeBench {
+
+    private static final String[] QUERIES = {
+        "a", "ma", "mar", "son", "van", "de", "sil", "ro", "ben", "li", "ke", "mü", "jo", "ra", "el"
+    };
+    private static final String[] LEAGUES = { "", "premier", "liga", "serie", "bundesliga", "ligue" };
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int exportPercent = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        String label = args.length > 4 ? args[4] : baseUrl;
+
+        HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        String exportBody = exportBody();
+
+        // Warm up JIT and caches before measuring
+        run(client, baseUrl, clients, 5, exportPercent, exportBody, new long[1][0]);
+
+        long[][] latencies = new long[1][];
+        long start = System.nanoTime();
+        long[] counts = run(client, baseUrl, clients, seconds, exportPercent, exportBody, latencies);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies[0];
+        Arrays.sort(sorted);
+        System.out.printf("%-10s clients=%d requests=%d errors=%d throughput=%.0f req/s "
+                + "p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+            label, clients, sorted.length, counts[1], sorted.length / elapsed,
+            percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+            sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long[] run(HttpClient client, String baseUrl, int clients, int seconds,
+                              int exportPercent, String exportBody, long[][] latenciesOut) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            long[][] mine = { new long[1024] };
+            int[] size = { 0 };
+            Random random = new Random(c);
+            Thread.ofVirtual().start(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = random.nextInt(100) < exportPercent
+                            ? exportRequest(baseUrl, exportBody)
+                            : searchRequest(baseUrl, random);
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() >= 400) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (size[0] == mine[0].length) mine[0] = Arrays.copyOf(mine[0], size[0] * 2);
+                        mine[0][size[0]++] = System.nanoTime() - t0;
+                    }
+                } finally {
+                    synchronized (perClient) {
+                        perClient.add(Arrays.copyOf(mine[0], size[0]));
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        latenciesOut[0] = perClient.stream().flatMapToLong(Arrays::stream).toArray();
+        return new long[] { latenciesOut[0].length, errors.get() };
+    }
+
+    private static HttpRequest searchRequest(String baseUrl, Random random) {
+        String query = QUERIES[random.nextInt(QUERIES.length)];
+        String league = LEAGUES[random.nextInt(LEAGUES.length)];
+        String uri = baseUrl + "/api/players/search?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+            + "&league=" + league + "&page=" + random.nextInt(5) + "&size=" + (10 + random.nextInt(40));
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static HttpRequest exportRequest(String baseUrl, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/lineup/export/svg"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static String exportBody() {
+        StringBuilder players = new StringBuilder();
+        for (int i = 0; i < 11; i++) {
+            if (i > 0) players.append(',');
+            players.append(String.format(
+                "{\"playerId\":\"p%d\",\"positionId\":\"s%d\",\"name\":\"Player %d\",\"number\":%d,\"customX\":%d,\"customY\":%d}",
+                i, i, i, i + 1, 10 + (i * 7) % 80, 10 + (i * 13) % 80));
+        }
+        return "{\"formationId\":\"4-3-3\",\"players\":[" + players + "],\"format\":\"svg\",\"width\":1080,\"height\":1350}";
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,39 @@
+#!/bin/bash
+
+# Compares platform-thread and virtual-thread request execution under the same
+# mixed search/export load. Requires JDK 21 on PATH.
+# Run from the repo root: bash scripts/bench-threads.sh [clients] [seconds] [exportPercent]
+#
+# TOMCAT_MAX_THREADS caps the platform pool (default 200) to mimic a small instance.
+# Admission control is off: every client comes from localhost and would share one
+# per-client rate, so the runs would mostly measure 429s.
+
+set -e
+
+CLIENTS="${1:-64}"
+SECONDS_PER_RUN="${2:-20}"
+EXPORT_PERCENT="${3:-20}"
+PORT="${BENCH_PORT:-18090}"
+JAR="backend/target/lineup-generator-backend-1.0.0.jar"
+
+(cd backend && ./mvnw -B -q package -DskipTests)
+
+for MODE in false true; do
+  LABEL=$([ "$MODE" = true ] && echo virtual || echo platform)
+  VIRTUAL_THREADS=$MODE ADMISSION_CONTROL=false PORT=$PORT LINEUP_STORE_DIR="$(mktemp -d)" \
+    java ${JAVA_OPTS:-"-Xmx512m"} -jar "$JAR" \
+    ${TOMCAT_MAX_THREADS:+--server.tomcat.threads.max=$TOMCAT_MAX_THREADS} > "/tmp/bench-$LABEL.log" 2>&1 &
+  PID=$!
+  trap 'kill $PID 2>/dev/null' EXIT
+
+  for _ in $(seq 1 60); do
+    curl -sf "http://localhost:$PORT/api/health" > /dev/null && break
+    sleep 1
+  done
+
+  java scripts/ThreadModeBench.java "http://localhost:$PORT" "$CLIENTS" "$SECONDS_PER_RUN" "$EXPORT_PERCENT" "$LABEL"
+  kill $PID
+  wait $PID 2>/dev/null || true
+done
+
+echo "Server logs: /tmp/bench-platform.log /tmp/bench-virtual.log"
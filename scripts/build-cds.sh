@@ -0,0 +1,40 @@
+#!/bin/bash
+
+# Builds a fast-starting layout of the backend: AOT-processed bean definitions
+# (Maven profile fast-start) plus a class-data-sharing archive recorded from a
+# training start. Requires JDK 21 on PATH.
+# Run from the repo root: bash scripts/build-cds.sh [outputDir]
+#
+# Start it with the generated run.sh; extra arguments are passed to the app.
+# Conditions such as VIRTUAL_THREADS are fixed when the AOT step runs.
+
+set -e
+
+OUT="$(mkdir -p "${1:-backend/target/cds}" && cd "${1:-backend/target/cds}" && pwd)"
+JAR="$(pwd)/backend/target/lineup-generator-backend-1.0.0.jar"
+MAIN="com.lineupgenerator.LineupGeneratorApplication"
+
+(cd backend && ./mvnw -B -q clean package -DskipTests -Pfast-start)
+
+# CDS needs plain jars on the class path, not the nested jars of the Boot jar
+rm -rf "$OUT"/*
+mkdir -p "$OUT/exploded"
+(cd "$OUT/exploded" && jar xf "$JAR")
+jar cf "$OUT/app.jar" -C "$OUT/exploded/BOOT-INF/classes" .
+mv "$OUT/exploded/BOOT-INF/lib" "$OUT/lib"
+rm -rf "$OUT/exploded"
+
+CP="app.jar:$(cd "$OUT" && ls lib/*.jar | tr '\n' ':')"
+
+# Training run: refreshes the context (loading the player data) and exits
+(cd "$OUT" && PORT=0 LINEUP_STORE_DIR="$(mktemp -d)" java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true \
+  -Dspring.context.exit=onRefresh -cp "$CP" "$MAIN" > training.log 2>&1)
+
+cat > "$OUT/run.sh" <<RUN
+#!/bin/sh
+cd "\$(dirname "\$0")"
+exec java \${JAVA_OPTS} -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -cp "$CP" $MAIN "\$@"
+RUN
+chmod +x "$OUT/run.sh"
+
+echo "Built $OUT (start with $OUT/run.sh)"